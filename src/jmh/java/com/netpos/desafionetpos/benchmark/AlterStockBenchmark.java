@@ -0,0 +1,90 @@
+package com.netpos.desafionetpos.benchmark;
+
+import com.netpos.desafionetpos.dto.AlterStockResultDTO;
+import com.netpos.desafionetpos.dto.vm.AlterStockItemVM;
+import com.netpos.desafionetpos.entity.enumeration.Operation;
+import com.netpos.desafionetpos.repository.ProductRepository;
+import com.netpos.desafionetpos.service.ProductService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ProductService#alterStock} called once per item, each call in its own transaction as with one
+ * HTTP request per movement, against {@link ProductService#alterStockBatch} for the same items.
+ * Each invocation alternates between adding and removing one unit, so the Stock stays within its bounds.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AlterStockBenchmark {
+
+    private static final int CATALOG_SIZE = 1000;
+
+    @Param({"1", "10", "100", "1000"})
+    private int batchSize;
+
+    private ConfigurableApplicationContext context;
+
+    private ProductService productService;
+
+    private Long userAccountId;
+
+    private List<AlterStockItemVM> addItems;
+
+    private List<AlterStockItemVM> subItems;
+
+    private boolean add;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start();
+        productService = context.getBean(ProductService.class);
+        userAccountId = BenchmarkContext.createCatalog(context, CATALOG_SIZE);
+
+        List<Long> productIds = new ArrayList<>();
+        context.getBean(ProductRepository.class).findAll().forEach(product -> productIds.add(product.getId()));
+        addItems = createItems(productIds, Operation.ADD);
+        subItems = createItems(productIds, Operation.SUB);
+    }
+
+    private List<AlterStockItemVM> createItems(List<Long> productIds, Operation operation) {
+        List<AlterStockItemVM> items = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            AlterStockItemVM item = new AlterStockItemVM();
+            item.setProductId(productIds.get(i));
+            item.setOperation(operation);
+            item.setQuantity(1);
+            items.add(item);
+        }
+        return items;
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    private List<AlterStockItemVM> nextItems() {
+        add = !add;
+        return add ? addItems : subItems;
+    }
+
+    @Benchmark
+    public void singleItemCalls() {
+        for (AlterStockItemVM item : nextItems()) {
+            productService.alterStock(item, item.getProductId(), userAccountId);
+        }
+    }
+
+    @Benchmark
+    public List<AlterStockResultDTO> batch() {
+        return productService.alterStockBatch(nextItems(), userAccountId);
+    }
+}
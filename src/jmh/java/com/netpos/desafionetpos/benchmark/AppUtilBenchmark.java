@@ -0,0 +1,34 @@
+package com.netpos.desafionetpos.benchmark;
+
+import com.netpos.desafionetpos.controller.util.AppUtil;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Sort.Order;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing of the {@code order} request parameter by {@link AppUtil#getSortListFromString(String[])}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AppUtilBenchmark {
+
+    private final String[] singleColumn = {"name", "asc"};
+
+    private final String[] severalColumns = {"name,asc", "code,desc", "price,asc", "stock.quantity,desc"};
+
+    @Benchmark
+    public List<Order> singleColumn() {
+        return AppUtil.getSortListFromString(singleColumn);
+    }
+
+    @Benchmark
+    public List<Order> severalColumns() {
+        return AppUtil.getSortListFromString(severalColumns);
+    }
+}
@@ -0,0 +1,79 @@
+package com.netpos.desafionetpos.benchmark;
+
+import com.netpos.desafionetpos.DesafioNetposApplication;
+import com.netpos.desafionetpos.entity.Product;
+import com.netpos.desafionetpos.entity.Stock;
+import com.netpos.desafionetpos.entity.UserAccount;
+import com.netpos.desafionetpos.repository.ProductRepository;
+import com.netpos.desafionetpos.repository.UserAccountRepository;
+import org.springframework.boot.Banner;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Starts the application on a private in-memory H2 database for the benchmarks of the service layer.
+ */
+final class BenchmarkContext {
+
+    static final int DEFAULT_STOCK_QUANTITY = 500;
+
+    private BenchmarkContext() {
+    }
+
+    static ConfigurableApplicationContext start() {
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        return new SpringApplicationBuilder(DesafioNetposApplication.class)
+                .web(WebApplicationType.NONE)
+                .bannerMode(Banner.Mode.OFF)
+                .run(
+                        "--spring.datasource.url=jdbc:h2:mem:benchmark-" + UUID.randomUUID(),
+                        "--spring.jpa.properties.hibernate.show_sql=false",
+                        "--spring.h2.console.enabled=false",
+                        "--logging.level.root=WARN");
+    }
+
+    /**
+     * Commit a UserAccount owning {@code catalogSize} Products named "Product i" with the code "Pi".
+     *
+     * @return the id of the UserAccount.
+     */
+    static Long createCatalog(ApplicationContext context, int catalogSize) {
+        UserAccountRepository userAccountRepository = context.getBean(UserAccountRepository.class);
+        ProductRepository productRepository = context.getBean(ProductRepository.class);
+        TransactionTemplate transactionTemplate = context.getBean(TransactionTemplate.class);
+
+        return transactionTemplate.execute(status -> {
+            UserAccount userAccount = new UserAccount();
+            userAccount.setFullName("Benchmark");
+            userAccount.setEmail("benchmark@netpos.com");
+            userAccount.setPassword(new BCryptPasswordEncoder(4).encode("benchmark"));
+            userAccountRepository.save(userAccount);
+
+            List<Product> products = new ArrayList<>(catalogSize);
+            for (int i = 0; i < catalogSize; i++) {
+                products.add(createProduct(i, userAccount));
+            }
+            productRepository.saveAll(products);
+            return userAccount.getId();
+        });
+    }
+
+    static Product createProduct(long i, UserAccount userAccount) {
+        Product product = new Product();
+        product.setName("Product " + i);
+        product.setCode("P" + i);
+        product.setPrice(BigDecimal.valueOf(10 + i % 1000));
+        product.setStock(new Stock().quantity(DEFAULT_STOCK_QUANTITY));
+        product.setUserAccount(userAccount);
+        return product;
+    }
+}
@@ -0,0 +1,88 @@
+package com.netpos.desafionetpos.benchmark;
+
+import com.netpos.desafionetpos.dto.ProductDTO;
+import com.netpos.desafionetpos.dto.StockDTO;
+import com.netpos.desafionetpos.dto.UserAccountDTO;
+import com.netpos.desafionetpos.entity.Product;
+import com.netpos.desafionetpos.mapper.ProductMapper;
+import com.netpos.desafionetpos.repository.ProductRepository;
+import com.netpos.desafionetpos.service.ProductService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Creation of a Product relying on the unique constraint of the code, as {@link ProductService#save} does,
+ * against looking the code up before the insert, as it was done before the constraint existed.
+ * Every invocation creates a Product with a new code, so the lookup never finds one.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductCreateBenchmark {
+
+    private static final int CATALOG_SIZE = 10_000;
+
+    private final AtomicLong codeSequence = new AtomicLong(CATALOG_SIZE);
+
+    private ConfigurableApplicationContext context;
+
+    private ProductService productService;
+
+    private ProductRepository productRepository;
+
+    private ProductMapper productMapper;
+
+    private TransactionTemplate transactionTemplate;
+
+    private Long userAccountId;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start();
+        productService = context.getBean(ProductService.class);
+        productRepository = context.getBean(ProductRepository.class);
+        productMapper = context.getBean(ProductMapper.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+        userAccountId = BenchmarkContext.createCatalog(context, CATALOG_SIZE);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    private ProductDTO nextProduct() {
+        long i = codeSequence.getAndIncrement();
+        ProductDTO productDTO = new ProductDTO();
+        productDTO.setName("Product " + i);
+        productDTO.setCode("P" + i);
+        productDTO.setPrice(BigDecimal.TEN);
+        productDTO.setStock(new StockDTO().quantity(BenchmarkContext.DEFAULT_STOCK_QUANTITY));
+        productDTO.setUserAccount(new UserAccountDTO().id(userAccountId));
+        return productDTO;
+    }
+
+    @Benchmark
+    public ProductDTO insert() {
+        return productService.save(nextProduct(), userAccountId);
+    }
+
+    @Benchmark
+    public Product checkThenInsert() {
+        ProductDTO productDTO = nextProduct();
+        return transactionTemplate.execute(status -> {
+            if (productRepository.findOneByCodeAndUserAccount_Id(productDTO.getCode(), userAccountId).isPresent()) {
+                throw new IllegalStateException("Duplicated code " + productDTO.getCode());
+            }
+            return productRepository.saveAndFlush(productMapper.toEntity(productDTO));
+        });
+    }
+}
@@ -0,0 +1,45 @@
+package com.netpos.desafionetpos.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.netpos.desafionetpos.dto.ProductDTO;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of the {@link ProductDTO} list returned by {@code GET /products}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductJsonBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int size;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    private List<ProductDTO> productDTOs;
+
+    @Setup
+    public void setUp() {
+        productDTOs = new ArrayList<>(size);
+        for (long i = 0; i < size; i++) {
+            productDTOs.add(new ProductDTO(i, "Product " + i, "P" + i, BigDecimal.valueOf(10 + i % 1000), 0L, i,
+                    BenchmarkContext.DEFAULT_STOCK_QUANTITY));
+        }
+    }
+
+    @Benchmark
+    public byte[] writeList() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(productDTOs);
+    }
+}
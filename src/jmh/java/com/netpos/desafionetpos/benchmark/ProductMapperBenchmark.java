@@ -0,0 +1,71 @@
+package com.netpos.desafionetpos.benchmark;
+
+import com.netpos.desafionetpos.dto.ProductDTO;
+import com.netpos.desafionetpos.entity.Product;
+import com.netpos.desafionetpos.entity.UserAccount;
+import com.netpos.desafionetpos.mapper.ProductMapper;
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ProductMapper} on single items and lists, and the {@link ProductDTO} projection constructor
+ * that replaced {@code toDto} on the read path. Run with {@code -prof gc} to compare allocations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductMapperBenchmark {
+
+    @Param({"1", "100", "1000"})
+    private int size;
+
+    private final ProductMapper productMapper = Mappers.getMapper(ProductMapper.class);
+
+    private List<Product> products;
+
+    private List<ProductDTO> productDTOs;
+
+    @Setup
+    public void setUp() {
+        UserAccount userAccount = new UserAccount();
+        userAccount.setId(1L);
+        userAccount.setFullName("Benchmark");
+        userAccount.setEmail("benchmark@netpos.com");
+
+        products = new ArrayList<>(size);
+        for (long i = 0; i < size; i++) {
+            Product product = BenchmarkContext.createProduct(i, userAccount);
+            product.setId(i);
+            product.getStock().setId(i);
+            products.add(product);
+        }
+        productDTOs = productMapper.toDto(products);
+    }
+
+    @Benchmark
+    public List<ProductDTO> toDto() {
+        return productMapper.toDto(products);
+    }
+
+    @Benchmark
+    public List<Product> toEntity() {
+        return productMapper.toEntity(productDTOs);
+    }
+
+    @Benchmark
+    public List<ProductDTO> projectionConstructor() {
+        List<ProductDTO> result = new ArrayList<>(products.size());
+        for (Product product : products) {
+            result.add(new ProductDTO(product.getId(), product.getName(), product.getCode(), product.getPrice(),
+                    product.getVersion(), product.getStock().getId(), product.getStock().getQuantity()));
+        }
+        return result;
+    }
+}
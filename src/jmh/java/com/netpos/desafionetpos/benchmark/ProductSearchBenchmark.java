@@ -0,0 +1,96 @@
+package com.netpos.desafionetpos.benchmark;
+
+import com.netpos.desafionetpos.dto.ProductDTO;
+import com.netpos.desafionetpos.entity.Product;
+import com.netpos.desafionetpos.mapper.ProductMapper;
+import com.netpos.desafionetpos.repository.ProductRepository;
+import com.netpos.desafionetpos.service.ProductService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of {@link ProductService#findAllByNameAndCode} against the size of the catalog, compared with
+ * a plain {@code LIKE} scan that skips the search index and with the former path that loaded entities
+ * and mapped them with {@link ProductMapper}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductSearchBenchmark {
+
+    private static final Sort ORDER = Sort.by("name");
+
+    private static final String SELECT_PRODUCTS = "SELECT product FROM Product product " +
+            "JOIN FETCH product.userAccount userAccount " +
+            "LEFT JOIN FETCH product.stock stock " +
+            "WHERE product.userAccount.id = :userAccountId " +
+            "AND (product.name LIKE :filter OR product.code LIKE :filter) " +
+            "ORDER BY product.name";
+
+    @Param({"100", "1000", "10000"})
+    private int catalogSize;
+
+    private ConfigurableApplicationContext context;
+
+    private ProductService productService;
+
+    private ProductRepository productRepository;
+
+    private ProductMapper productMapper;
+
+    private EntityManager entityManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    private Long userAccountId;
+
+    private String filter;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start();
+        productService = context.getBean(ProductService.class);
+        productRepository = context.getBean(ProductRepository.class);
+        productMapper = context.getBean(ProductMapper.class);
+        entityManager = context.getBean(EntityManager.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+        userAccountId = BenchmarkContext.createCatalog(context, catalogSize);
+        // Matches a handful of codes at every catalog size
+        filter = "P" + catalogSize / 2;
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<ProductDTO> withSearchIndex() {
+        return productService.findAllByNameAndCode(userAccountId, filter, ORDER);
+    }
+
+    @Benchmark
+    public List<ProductDTO> withoutSearchIndex() {
+        return productRepository.findDtoByFilters(userAccountId, filter, ORDER);
+    }
+
+    @Benchmark
+    public List<ProductDTO> entitiesAndMapper() {
+        return transactionTemplate.execute(status -> {
+            List<Product> products = entityManager.createQuery(SELECT_PRODUCTS, Product.class)
+                    .setParameter("userAccountId", userAccountId)
+                    .setParameter("filter", "%" + filter + "%")
+                    .getResultList();
+            return productMapper.toDto(products);
+        });
+    }
+}
@@ -0,0 +1,424 @@
+package com.netpos.desafionetpos.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.netpos.desafionetpos.DesafioNetposApplication;
+import com.netpos.desafionetpos.dto.ProductDTO;
+import com.netpos.desafionetpos.dto.StockDTO;
+import com.netpos.desafionetpos.dto.UserAccountDTO;
+import com.netpos.desafionetpos.dto.vm.AlterStockVM;
+import com.netpos.desafionetpos.dto.vm.ProductEditVM;
+import com.netpos.desafionetpos.dto.vm.UserAccountVM;
+import com.netpos.desafionetpos.entity.enumeration.Operation;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.Banner;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-model load generator for the {@code ProductController} and {@code UserAccountController} endpoints.
+ * <p>
+ * Starts the application on a random port with its in-memory H2 database, seeds UserAccounts and Products
+ * through the API and then sends requests at a fixed rate, whatever the response times are. The latency of each
+ * request is measured from the moment it was scheduled, so a slow server shows up in the percentiles instead
+ * of silently lowering the request rate.
+ * <p>
+ * With {@code loadtest.clients} the load generator runs a closed model instead: each client sends its next request
+ * as soon as the previous one completes, which keeps that many requests open against the server and measures
+ * the throughput it sustains. The heap used and the live threads are sampled while measuring, to compare the memory
+ * each open request costs with each execution mode and read path.
+ * <p>
+ * Configured with system properties:
+ * <ul>
+ *     <li>{@code loadtest.mode}: {@code application.execution.mode} of the application (default platform)</li>
+ *     <li>{@code loadtest.read-path}: {@code blocking} to read the Products from {@code /products}, or {@code reactive}
+ *     to read them from {@code /reactive/products} (default blocking)</li>
+ *     <li>{@code loadtest.rate}: requests per second (default 200)</li>
+ *     <li>{@code loadtest.clients}: concurrent clients of the closed model, or 0 to send at a fixed rate (default 0)</li>
+ *     <li>{@code loadtest.warmup}: seconds sent before measuring (default 10)</li>
+ *     <li>{@code loadtest.duration}: seconds measured (default 60)</li>
+ *     <li>{@code loadtest.users}: UserAccounts seeded (default 10)</li>
+ *     <li>{@code loadtest.products}: Products seeded per UserAccount (default 100)</li>
+ *     <li>{@code loadtest.mix}: weights of list, stock and CRUD requests (default 70,20,10)</li>
+ * </ul>
+ */
+public class LoadTest {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private static final double KILOBYTE = 1024;
+    private static final double MEGABYTE = 1024 * 1024;
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    private static final String LIST_PRODUCTS = "GET /products";
+    private static final String ALTER_STOCK = "POST /products/{id}/stock";
+    private static final String CREATE_PRODUCT = "POST /products";
+    private static final String GET_PRODUCT = "GET /products/{id}";
+    private static final String EDIT_PRODUCT = "PUT /products/{id}";
+    private static final String DELETE_PRODUCT = "DELETE /products/{id}";
+    private static final String GET_USER_ACCOUNT = "GET /users/{id}";
+
+    private final String mode = System.getProperty("loadtest.mode", "platform");
+    private final String readPath = System.getProperty("loadtest.read-path", "blocking");
+    private final int rate = Integer.getInteger("loadtest.rate", 200);
+    private final int clients = Integer.getInteger("loadtest.clients", 0);
+    private final int warmupSeconds = Integer.getInteger("loadtest.warmup", 10);
+    private final int durationSeconds = Integer.getInteger("loadtest.duration", 60);
+    private final int userAccounts = Integer.getInteger("loadtest.users", 10);
+    private final int productsPerUserAccount = Integer.getInteger("loadtest.products", 100);
+    private final int[] mix = Arrays.stream(System.getProperty("loadtest.mix", "70,20,10").split(","))
+            .map(String::trim).mapToInt(Integer::parseInt).toArray();
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .build();
+
+    private final Map<String, EndpointStats> stats = new LinkedHashMap<>();
+
+    private final Map<Long, List<Long>> seededProducts = new HashMap<>();
+
+    private final List<Long> userAccountIds = new ArrayList<>();
+
+    private final Queue<long[]> createdProducts = new ConcurrentLinkedQueue<>();
+
+    private final AtomicLong codeSequence = new AtomicLong();
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private ObjectMapper objectMapper;
+
+    private String baseUrl;
+
+    private volatile long measureFrom = Long.MAX_VALUE;
+
+    private volatile long measureUntil = Long.MAX_VALUE;
+
+    private String readBaseUrl;
+
+    private final ResourceSampler resourceSampler = new ResourceSampler();
+
+    public static void main(String[] args) throws Exception {
+        new LoadTest().run();
+    }
+
+    private void run() throws Exception {
+        for (String endpoint : List.of(LIST_PRODUCTS, ALTER_STOCK, CREATE_PRODUCT, GET_PRODUCT, EDIT_PRODUCT, DELETE_PRODUCT, GET_USER_ACCOUNT)) {
+            stats.put(endpoint, new EndpointStats());
+        }
+
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        String database = "loadtest-" + UUID.randomUUID();
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(DesafioNetposApplication.class)
+                .bannerMode(Banner.Mode.OFF)
+                .run(
+                        "--server.port=0",
+                        "--application.execution.mode=" + mode,
+                        "--spring.datasource.url=jdbc:h2:mem:" + database,
+                        "--application.r2dbc.url=r2dbc:h2:mem:///" + database,
+                        "--spring.jpa.properties.hibernate.show_sql=false",
+                        "--logging.level.root=WARN")) {
+            objectMapper = context.getBean(ObjectMapper.class);
+            baseUrl = "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort();
+            readBaseUrl = "reactive".equals(readPath) ? "/reactive/products" : "/products";
+
+            seed();
+            if (clients > 0) {
+                System.out.printf("Seeded %d UserAccounts with %d Products each, %d clients sending requests for %ds + %ds warmup (%s mode, %s reads)%n",
+                        userAccounts, productsPerUserAccount, clients, durationSeconds, warmupSeconds, mode, readPath);
+                driveClients();
+            } else {
+                System.out.printf("Seeded %d UserAccounts with %d Products each, sending %d requests/s for %ds + %ds warmup (%s mode, %s reads)%n",
+                        userAccounts, productsPerUserAccount, rate, durationSeconds, warmupSeconds, mode, readPath);
+                drive();
+            }
+            report();
+        }
+    }
+
+    private void seed() throws IOException, InterruptedException {
+        for (int i = 0; i < userAccounts; i++) {
+            UserAccountVM userAccountVM = new UserAccountVM();
+            userAccountVM.setFullName("Load test " + i);
+            userAccountVM.setEmail("loadtest" + i + "@netpos.com");
+            userAccountVM.setPassword("loadtest");
+            HttpResponse<byte[]> response = httpClient.send(post("/users", null, userAccountVM), HttpResponse.BodyHandlers.ofByteArray());
+            Long userAccountId = objectMapper.readValue(response.body(), UserAccountDTO.class).getId();
+
+            List<Long> productIds = new ArrayList<>(productsPerUserAccount);
+            for (int j = 0; j < productsPerUserAccount; j++) {
+                response = httpClient.send(post("/products", userAccountId, newProduct()), HttpResponse.BodyHandlers.ofByteArray());
+                productIds.add(objectMapper.readValue(response.body(), ProductDTO.class).getId());
+            }
+            seededProducts.put(userAccountId, productIds);
+            userAccountIds.add(userAccountId);
+        }
+    }
+
+    /**
+     * Schedule one request every {@code 1/rate} seconds, sending it without waiting for the previous ones.
+     */
+    private void drive() throws InterruptedException {
+        long interval = TimeUnit.SECONDS.toNanos(1) / rate;
+        long start = System.nanoTime();
+        long total = (long) rate * (warmupSeconds + durationSeconds);
+        measureFrom = start + TimeUnit.SECONDS.toNanos(warmupSeconds);
+        measureUntil = measureFrom + TimeUnit.SECONDS.toNanos(durationSeconds);
+        resourceSampler.start(measureFrom, measureUntil);
+
+        for (long i = 0; i < total; i++) {
+            long scheduledAt = start + i * interval;
+            long delay = scheduledAt - System.nanoTime();
+            if (delay > 0) {
+                LockSupport.parkNanos(delay);
+            }
+            send(scheduledAt);
+        }
+
+        awaitInFlight();
+    }
+
+    /**
+     * Keep one request open per client until the end of the measurement, each client sending its next request
+     * as soon as the previous one completes.
+     */
+    private void driveClients() throws InterruptedException {
+        long start = System.nanoTime();
+        measureFrom = start + TimeUnit.SECONDS.toNanos(warmupSeconds);
+        measureUntil = measureFrom + TimeUnit.SECONDS.toNanos(durationSeconds);
+        resourceSampler.start(measureFrom, measureUntil);
+
+        for (int i = 0; i < clients; i++) {
+            sendNext();
+        }
+        Thread.sleep(TimeUnit.NANOSECONDS.toMillis(measureUntil - start));
+        awaitInFlight();
+    }
+
+    private void sendNext() {
+        long now = System.nanoTime();
+        if (now < measureUntil) {
+            send(now).whenComplete((response, error) -> sendNext());
+        }
+    }
+
+    private void awaitInFlight() throws InterruptedException {
+        long deadline = System.nanoTime() + REQUEST_TIMEOUT.toNanos();
+        while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private CompletableFuture<?> send(long scheduledAt) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Long userAccountId = userAccountIds.get(random.nextInt(userAccountIds.size()));
+        List<Long> productIds = seededProducts.get(userAccountId);
+        Long productId = productIds.get(random.nextInt(productIds.size()));
+
+        int pick = random.nextInt(mix[0] + mix[1] + mix[2]);
+        if (pick < mix[0]) {
+            String filter = random.nextBoolean() ? "&filter=" : "&filter=P" + random.nextInt(productsPerUserAccount);
+            return execute(LIST_PRODUCTS, get(readBaseUrl + "?order=name,asc" + filter, userAccountId), scheduledAt, null);
+        } else if (pick < mix[0] + mix[1]) {
+            AlterStockVM alterStockVM = new AlterStockVM();
+            alterStockVM.setOperation(random.nextBoolean() ? Operation.ADD : Operation.SUB);
+            alterStockVM.setQuantity(1);
+            return execute(ALTER_STOCK, post("/products/" + productId + "/stock", userAccountId, alterStockVM), scheduledAt, null);
+        }
+        return sendCrud(random, userAccountId, productId, scheduledAt);
+    }
+
+    private CompletableFuture<?> sendCrud(ThreadLocalRandom random, Long userAccountId, Long productId, long scheduledAt) {
+        int pick = random.nextInt(10);
+        if (pick < 3) {
+            return execute(GET_PRODUCT, get(readBaseUrl + "/" + productId, userAccountId), scheduledAt, null);
+        } else if (pick < 5) {
+            ProductEditVM productEditVM = new ProductEditVM();
+            productEditVM.setName("Product " + random.nextInt(productsPerUserAccount));
+            productEditVM.setPrice(BigDecimal.valueOf(random.nextInt(1, 10000)));
+            return execute(EDIT_PRODUCT, put("/products/" + productId, userAccountId, productEditVM), scheduledAt, null);
+        } else if (pick < 6) {
+            return execute(GET_USER_ACCOUNT, get("/users/" + userAccountId, null), scheduledAt, null);
+        }
+        long[] created = pick < 7 ? createdProducts.poll() : null;
+        if (created != null) {
+            return execute(DELETE_PRODUCT, delete("/products/" + created[1], created[0]), scheduledAt, null);
+        }
+        return execute(CREATE_PRODUCT, post("/products", userAccountId, newProduct()), scheduledAt, body -> {
+            ProductDTO productDTO = objectMapper.readValue(body, ProductDTO.class);
+            createdProducts.add(new long[]{userAccountId, productDTO.getId()});
+        });
+    }
+
+    private CompletableFuture<?> execute(String endpoint, HttpRequest request, long scheduledAt, ResponseHandler onSuccess) {
+        inFlight.incrementAndGet();
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+                .whenComplete((response, error) -> {
+                    inFlight.decrementAndGet();
+                    boolean success = error == null && response.statusCode() < 400;
+                    if (success && onSuccess != null) {
+                        try {
+                            onSuccess.handle(response.body());
+                        } catch (IOException e) {
+                            success = false;
+                        }
+                    }
+                    if (scheduledAt >= measureFrom && scheduledAt < measureUntil) {
+                        stats.get(endpoint).record(System.nanoTime() - scheduledAt, success);
+                    }
+                });
+    }
+
+    private void report() {
+        long measured = stats.values().stream().mapToLong(endpointStats -> endpointStats.latency.getTotalCount()).sum();
+        System.out.printf("%nThroughput: %.1f requests/s%n", (double) measured / durationSeconds);
+        resourceSampler.report(clients);
+        System.out.printf("%n%-28s %9s %8s %10s %10s %10s %10s%n", "Endpoint", "Requests", "Errors", "p50 (ms)", "p99 (ms)", "p99.9 (ms)", "max (ms)");
+        stats.forEach((endpoint, endpointStats) -> {
+            Histogram histogram = endpointStats.latency;
+            long requests = histogram.getTotalCount();
+            System.out.printf("%-28s %9d %7.2f%% %10.2f %10.2f %10.2f %10.2f%n", endpoint, requests,
+                    requests == 0 ? 0 : 100.0 * endpointStats.errors.get() / requests,
+                    millis(histogram.getValueAtPercentile(50)), millis(histogram.getValueAtPercentile(99)),
+                    millis(histogram.getValueAtPercentile(99.9)), millis(histogram.getMaxValue()));
+        });
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+
+    private ProductDTO newProduct() {
+        long sequence = codeSequence.getAndIncrement();
+        ProductDTO productDTO = new ProductDTO();
+        productDTO.setName("Product " + sequence);
+        productDTO.setCode("P" + sequence);
+        productDTO.setPrice(BigDecimal.valueOf(10 + sequence % 1000));
+        productDTO.setStock(new StockDTO().quantity(500));
+        return productDTO;
+    }
+
+    private HttpRequest get(String path, Long userAccountId) {
+        return request(path, userAccountId).GET().build();
+    }
+
+    private HttpRequest delete(String path, Long userAccountId) {
+        return request(path, userAccountId).DELETE().build();
+    }
+
+    private HttpRequest post(String path, Long userAccountId, Object body) {
+        return request(path, userAccountId).POST(json(body)).header("Content-Type", "application/json").build();
+    }
+
+    private HttpRequest put(String path, Long userAccountId, Object body) {
+        return request(path, userAccountId).PUT(json(body)).header("Content-Type", "application/json").build();
+    }
+
+    private HttpRequest.Builder request(String path, Long userAccountId) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Accept", "application/json");
+        if (userAccountId != null) {
+            builder.header("user_id", userAccountId.toString());
+        }
+        return builder;
+    }
+
+    private HttpRequest.BodyPublisher json(Object body) {
+        try {
+            return HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Samples the heap used and the live threads of the JVM, which runs both the application and the load generator.
+     */
+    private static class ResourceSampler {
+
+        private static final long INTERVAL_MILLIS = 100;
+
+        private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+
+        private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+        private long samples;
+
+        private long heapUsedSum;
+
+        private long heapUsedMax;
+
+        private int threadsMax;
+
+        void start(long from, long until) {
+            Thread sampler = new Thread(() -> {
+                LockSupport.parkNanos(from - System.nanoTime());
+                while (System.nanoTime() < until) {
+                    sample();
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(INTERVAL_MILLIS));
+                }
+            }, "loadtest-sampler");
+            sampler.setDaemon(true);
+            sampler.start();
+        }
+
+        private synchronized void sample() {
+            long heapUsed = memory.getHeapMemoryUsage().getUsed();
+            samples++;
+            heapUsedSum += heapUsed;
+            heapUsedMax = Math.max(heapUsedMax, heapUsed);
+            threadsMax = Math.max(threadsMax, threads.getThreadCount());
+        }
+
+        synchronized void report(int clients) {
+            if (samples == 0) {
+                return;
+            }
+            double heapUsedAverage = (double) heapUsedSum / samples;
+            System.out.printf("Heap used: %.1f MB average, %.1f MB max. Live threads: %d max%n",
+                    heapUsedAverage / MEGABYTE, heapUsedMax / MEGABYTE, threadsMax);
+            if (clients > 0) {
+                System.out.printf("Per client: %.1f KB of heap on average%n", heapUsedAverage / clients / KILOBYTE);
+            }
+        }
+    }
+
+    private interface ResponseHandler {
+        void handle(byte[] body) throws IOException;
+    }
+
+    private static class EndpointStats {
+
+        private final Histogram latency = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+
+        private final AtomicLong errors = new AtomicLong();
+
+        void record(long nanos, boolean success) {
+            latency.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(nanos), HIGHEST_TRACKABLE_MICROS));
+            if (!success) {
+                errors.incrementAndGet();
+            }
+        }
+    }
+}
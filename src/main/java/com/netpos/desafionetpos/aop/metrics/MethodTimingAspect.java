@@ -0,0 +1,103 @@
+package com.netpos.desafionetpos.aop.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Pointcut;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Aspect for timing the public methods of the services and the Spring Data repositories.
+ * <p>
+ * Each method gets its own {@link Timer}, tagged with the class, the method and the exception thrown, if any.
+ * The timers of successful calls are cached per method, so the hot path does a single map lookup.
+ */
+@Aspect
+public class MethodTimingAspect {
+
+    public static final String SERVICE_TIMER = "app.service";
+
+    public static final String REPOSITORY_TIMER = "app.repository";
+
+    private static final String REPOSITORY_PACKAGE = "com.netpos.desafionetpos.repository";
+
+    private static final String NO_EXCEPTION = "none";
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<Class<?>, Map<Method, Timer>> timers = new ConcurrentHashMap<>();
+
+    public MethodTimingAspect(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Pointcut that matches all the public methods of the Spring services.
+     */
+    @Pointcut("within(@org.springframework.stereotype.Service com.netpos.desafionetpos.service..*) && execution(public * *(..))")
+    public void servicePointcut() {
+        // Method is empty as this is just a Pointcut, the implementations are in the advices.
+    }
+
+    /**
+     * Pointcut that matches all the methods of the Spring Data repositories, including the inherited ones.
+     */
+    @Pointcut("execution(public * com.netpos.desafionetpos.repository.*Repository+.*(..))")
+    public void repositoryPointcut() {
+        // Method is empty as this is just a Pointcut, the implementations are in the advices.
+    }
+
+    @Around("servicePointcut()")
+    public Object timeService(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time(joinPoint, SERVICE_TIMER);
+    }
+
+    @Around("repositoryPointcut()")
+    public Object timeRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time(joinPoint, REPOSITORY_TIMER);
+    }
+
+    private Object time(ProceedingJoinPoint joinPoint, String name) throws Throwable {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        Object result;
+        try {
+            result = joinPoint.proceed();
+        } catch (Throwable e) {
+            sample.stop(timer(joinPoint, name, e.getClass().getSimpleName()));
+            throw e;
+        }
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        Timer timer = timers.computeIfAbsent(joinPoint.getThis().getClass(), proxyClass -> new ConcurrentHashMap<>())
+                .computeIfAbsent(method, m -> timer(joinPoint, name, NO_EXCEPTION));
+        sample.stop(timer);
+        return result;
+    }
+
+    private Timer timer(ProceedingJoinPoint joinPoint, String name, String exception) {
+        return Timer.builder(name)
+                .tag("class", className(joinPoint))
+                .tag("method", joinPoint.getSignature().getName())
+                .tag("exception", exception)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    /**
+     * The name of the service, or of the repository interface for the methods inherited from Spring Data.
+     */
+    private static String className(ProceedingJoinPoint joinPoint) {
+        for (Class<?> proxiedInterface : joinPoint.getThis().getClass().getInterfaces()) {
+            if (proxiedInterface.getPackageName().equals(REPOSITORY_PACKAGE)) {
+                return proxiedInterface.getSimpleName();
+            }
+        }
+        return ClassUtils.getUserClass(joinPoint.getThis().getClass()).getSimpleName();
+    }
+}
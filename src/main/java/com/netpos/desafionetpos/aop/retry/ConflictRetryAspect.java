@@ -0,0 +1,88 @@
+package com.netpos.desafionetpos.aop.retry;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.Ordered;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.ClassUtils;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Aspect retrying the methods annotated with {@link RetryOnConflict}.
+ * <p>
+ * The aspect runs before the transaction interceptor, so every attempt gets its own transaction. Between attempts it
+ * sleeps a random time between zero and an exponentially growing bound ("full jitter"), so the callers which collided
+ * do not collide again, and it gives up after {@code maxAttempts}. Every conflict is counted in
+ * {@link #CONFLICTS_COUNTER}, tagged with the method and whether it was retried or the attempts were exhausted.
+ */
+@Aspect
+public class ConflictRetryAspect implements Ordered {
+
+    public static final String CONFLICTS_COUNTER = "app.concurrency.conflicts";
+
+    private final Logger log = LoggerFactory.getLogger(ConflictRetryAspect.class);
+
+    private final MeterRegistry meterRegistry;
+
+    private final int maxAttempts;
+
+    private final long initialBackoffMillis;
+
+    private final long maxBackoffMillis;
+
+    public ConflictRetryAspect(MeterRegistry meterRegistry, int maxAttempts, Duration initialBackoff, Duration maxBackoff) {
+        this.meterRegistry = meterRegistry;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffMillis = initialBackoff.toMillis();
+        this.maxBackoffMillis = maxBackoff.toMillis();
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+
+    @Around("@annotation(com.netpos.desafionetpos.aop.retry.RetryOnConflict)")
+    public Object retry(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            // Joining the transaction of the caller, which a conflict marks for rollback, so only the caller can retry
+            return joinPoint.proceed();
+        }
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return joinPoint.proceed();
+            } catch (ConcurrencyFailureException e) {
+                if (attempt >= maxAttempts) {
+                    conflicts(joinPoint, "exhausted").increment();
+                    throw e;
+                }
+                conflicts(joinPoint, "retried").increment();
+                long backoffMillis = ThreadLocalRandom.current().nextLong(Math.min(maxBackoffMillis, initialBackoffMillis << (attempt - 1)) + 1);
+                log.debug("Conflict on attempt {} of {}, retrying in {} ms: {}", attempt, joinPoint.getSignature().toShortString(), backoffMillis, e.getMessage());
+                try {
+                    Thread.sleep(backoffMillis);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private Counter conflicts(ProceedingJoinPoint joinPoint, String outcome) {
+        return Counter.builder(CONFLICTS_COUNTER)
+                .description("Transactions which failed on a concurrent change")
+                .tag("class", ClassUtils.getUserClass(joinPoint.getThis().getClass()).getSimpleName())
+                .tag("method", joinPoint.getSignature().getName())
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,19 @@
+package com.netpos.desafionetpos.aop.retry;
+
+import org.springframework.dao.ConcurrencyFailureException;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a method to be called again, in a new transaction, when it fails with a {@link ConcurrencyFailureException},
+ * such as a stale version or a lock timeout. The method must be safe to repeat after its transaction rolled back.
+ *
+ * @see ConflictRetryAspect
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RetryOnConflict {
+}
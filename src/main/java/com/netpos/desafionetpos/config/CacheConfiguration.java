@@ -0,0 +1,38 @@
+package com.netpos.desafionetpos.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@EnableCaching
+public class CacheConfiguration {
+
+    public static final String PRODUCT_BY_ID_CACHE = "productById";
+
+    /*
+     * Caffeine evicts with W-TinyLFU once the maximum size is reached, and records the hit/miss/eviction
+     * statistics published by the actuator metrics endpoint.
+     * The transaction aware proxy delays the evictions until the writing transaction commits, which keeps a read
+     * from caching the uncommitted row. It does not stop a read which loaded the row before the commit from putting
+     * it after the eviction: such an entry, including the Stock quantity, is served until it expires, so the
+     * time-to-live is the bound on how stale a cached Product can be.
+     */
+    @Bean
+    public CacheManager cacheManager(@Value("${application.cache.product.maximum-size}") long maximumSize,
+                                     @Value("${application.cache.product.time-to-live}") Duration timeToLive) {
+        CaffeineCacheManager caffeineCacheManager = new CaffeineCacheManager(PRODUCT_BY_ID_CACHE);
+        caffeineCacheManager.setCaffeine(Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(timeToLive)
+                .recordStats());
+        return new TransactionAwareCacheManagerProxy(caffeineCacheManager);
+    }
+}
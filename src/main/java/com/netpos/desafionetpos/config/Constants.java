@@ -3,4 +3,20 @@ package com.netpos.desafionetpos.config;
 public class Constants {
 
     public static final int MAX_PRODUCT_STOCK = 1000;
+
+    public static final int MAX_STOCK_BATCH_SIZE = 1000;
+
+    public static final int DEFAULT_PAGE_SIZE = 20;
+
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    public static final int MAX_SEARCH_CANDIDATES = 1000;
+
+    public static final int STREAM_FETCH_SIZE = 500;
+
+    public static final int IMPORT_CHUNK_SIZE = 1000;
+
+    public static final int MAX_IMPORT_REJECTIONS = 1000;
+
+    public static final int MAX_DELETE_BATCH_SIZE = 1000;
 }
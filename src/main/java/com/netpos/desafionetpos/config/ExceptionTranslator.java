@@ -1,15 +1,20 @@
 package com.netpos.desafionetpos.config;
 
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.context.request.NativeWebRequest;
 import org.zalando.problem.Problem;
 import org.zalando.problem.ProblemBuilder;
+import org.zalando.problem.Status;
 import org.zalando.problem.spring.web.advice.ProblemHandling;
 import org.zalando.problem.spring.web.advice.security.SecurityAdviceTrait;
 import org.zalando.problem.violations.ConstraintViolationProblem;
 
 import javax.annotation.Nullable;
+import java.util.concurrent.RejectedExecutionException;
 
 
 /**
@@ -22,6 +27,28 @@ public class ExceptionTranslator implements ProblemHandling, SecurityAdviceTrait
     private static final String MESSAGE_KEY = "message";
     private static final String VIOLATIONS_KEY = "violations";
     private static final String ERR_VALIDATION = "validation errors";
+    private static final int RETRY_AFTER_SECONDS = 1;
+
+    /**
+     * Work rejected by a saturated pool is answered with {@code 503 (Service Unavailable)}, telling the client when to retry.
+     */
+    @ExceptionHandler
+    public ResponseEntity<Problem> handleRejectedExecution(RejectedExecutionException ex, NativeWebRequest request) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(RETRY_AFTER_SECONDS));
+        return create(Status.SERVICE_UNAVAILABLE, ex, request, headers);
+    }
+
+    /**
+     * A concurrent change of the same rows, which was not or could no longer be retried, is answered with
+     * {@code 409 (Conflict)}, telling the client when to retry.
+     */
+    @ExceptionHandler
+    public ResponseEntity<Problem> handleConcurrencyFailure(ConcurrencyFailureException ex, NativeWebRequest request) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(RETRY_AFTER_SECONDS));
+        return create(Status.CONFLICT, ex, request, headers);
+    }
 
     /**
      * Post-process the Problem payload to add the message key for the front-end if needed.
@@ -0,0 +1,80 @@
+package com.netpos.desafionetpos.config;
+
+import com.netpos.desafionetpos.controller.util.JdbcExecutorHandlerAdapter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.coyote.ProtocolHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.web.servlet.WebMvcRegistrations;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+
+import java.lang.reflect.InvocationTargetException;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Selects how the requests are executed with {@code application.execution.mode}:
+ * <ul>
+ *     <li>{@code platform}: one container thread per request, limited by {@code server.tomcat.threads.max}.</li>
+ *     <li>{@code async}: the controller methods run on a pool with one thread per JDBC connection and the container
+ *     thread is released meanwhile, see {@link JdbcExecutorHandlerAdapter}.</li>
+ *     <li>{@code virtual}: one virtual thread per request, which requires Java 21 or later.</li>
+ * </ul>
+ */
+@Configuration
+public class ExecutionConfiguration {
+
+    public static final String EXECUTION_MODE_PROPERTY = "application.execution.mode";
+
+    private final Logger log = LoggerFactory.getLogger(ExecutionConfiguration.class);
+
+    @Bean
+    @ConditionalOnProperty(name = EXECUTION_MODE_PROPERTY, havingValue = "async")
+    public WebMvcRegistrations jdbcExecutorWebMvcRegistrations(@Value("${application.execution.jdbc-threads}") int threads,
+                                                               @Value("${application.execution.queue-capacity}") int queueCapacity,
+                                                               @Value("${application.execution.request-timeout}") Duration requestTimeout,
+                                                               MeterRegistry meterRegistry) {
+        log.info("Processing the requests on a pool of {} JDBC threads, with a timeout of {}", threads, requestTimeout);
+        JdbcExecutorHandlerAdapter handlerAdapter = new JdbcExecutorHandlerAdapter(threads, queueCapacity, requestTimeout, meterRegistry);
+        return new WebMvcRegistrations() {
+            @Override
+            public RequestMappingHandlerAdapter getRequestMappingHandlerAdapter() {
+                return handlerAdapter;
+            }
+        };
+    }
+
+    /*
+     * Tomcat runs each request on the executor given to its protocol handler, which here starts a new virtual
+     * thread per task. A virtual thread blocked on JDBC releases its carrier thread, so the concurrency is bounded
+     * by the connection pool instead of the container pool.
+     */
+    @Bean
+    @ConditionalOnProperty(name = EXECUTION_MODE_PROPERTY, havingValue = "virtual")
+    public TomcatProtocolHandlerCustomizer<ProtocolHandler> virtualThreadsProtocolHandlerCustomizer() {
+        ExecutorService executor = newVirtualThreadPerTaskExecutor();
+        log.info("Processing the requests on virtual threads");
+        return protocolHandler -> protocolHandler.setExecutor(executor);
+    }
+
+    /*
+     * Looked up by reflection because the application is compiled for Java 11.
+     */
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException(EXECUTION_MODE_PROPERTY + "=virtual requires Java 21 or later, running on " + Runtime.version(), e);
+        } catch (InvocationTargetException e) {
+            throw new IllegalStateException("Virtual threads are not available on Java " + Runtime.version(), e.getCause());
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.netpos.desafionetpos.config;
+
+import com.netpos.desafionetpos.aop.metrics.MethodTimingAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MetricsConfiguration {
+
+    /*
+     * Without this property the aspect is not registered at all, so the services and repositories are not
+     * proxied for timing and pay nothing for it.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "application.metrics.method-timing.enabled", havingValue = "true")
+    public MethodTimingAspect methodTimingAspect(MeterRegistry meterRegistry) {
+        return new MethodTimingAspect(meterRegistry);
+    }
+}
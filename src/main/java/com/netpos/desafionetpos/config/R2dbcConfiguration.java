@@ -0,0 +1,44 @@
+package com.netpos.desafionetpos.config;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+@Configuration
+public class R2dbcConfiguration implements DisposableBean {
+
+    private ConnectionPool connectionPool;
+
+    /*
+     * The pool is not exposed as a ConnectionFactory bean because Spring Boot does not configure the JDBC DataSource
+     * when there is one, and JPA still needs it. For the same reason R2dbcAutoConfiguration is excluded.
+     */
+    @Bean
+    public DatabaseClient databaseClient(@Value("${application.r2dbc.url}") String url,
+                                         @Value("${application.r2dbc.username}") String username,
+                                         @Value("${application.r2dbc.password}") String password,
+                                         @Value("${application.r2dbc.pool-size}") int poolSize) {
+        ConnectionFactoryOptions options = ConnectionFactoryOptions.parse(url).mutate()
+                .option(ConnectionFactoryOptions.USER, username)
+                .option(ConnectionFactoryOptions.PASSWORD, password)
+                .build();
+        connectionPool = new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options))
+                .initialSize(0)
+                .maxSize(poolSize)
+                .build());
+        return DatabaseClient.create(connectionPool);
+    }
+
+    @Override
+    public void destroy() {
+        if (connectionPool != null) {
+            connectionPool.dispose();
+        }
+    }
+}
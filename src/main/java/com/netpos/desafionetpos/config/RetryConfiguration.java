@@ -0,0 +1,21 @@
+package com.netpos.desafionetpos.config;
+
+import com.netpos.desafionetpos.aop.retry.ConflictRetryAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+public class RetryConfiguration {
+
+    @Bean
+    public ConflictRetryAspect conflictRetryAspect(MeterRegistry meterRegistry,
+                                                   @Value("${application.retry.max-attempts}") int maxAttempts,
+                                                   @Value("${application.retry.initial-backoff}") Duration initialBackoff,
+                                                   @Value("${application.retry.max-backoff}") Duration maxBackoff) {
+        return new ConflictRetryAspect(meterRegistry, maxAttempts, initialBackoff, maxBackoff);
+    }
+}
@@ -0,0 +1,14 @@
+package com.netpos.desafionetpos.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/*
+ * The scheduled jobs run on the single thread of the auto-configured task scheduler, one at a time.
+ * Each job reads its cron expression from a property, set to "-" to disable it.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfiguration {
+
+}
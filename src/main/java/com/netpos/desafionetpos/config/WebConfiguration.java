@@ -0,0 +1,21 @@
+package com.netpos.desafionetpos.config;
+
+import com.netpos.desafionetpos.controller.util.UserAccountHeaderInterceptor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class WebConfiguration implements WebMvcConfigurer {
+
+    private final UserAccountHeaderInterceptor userAccountHeaderInterceptor;
+
+    public WebConfiguration(UserAccountHeaderInterceptor userAccountHeaderInterceptor) {
+        this.userAccountHeaderInterceptor = userAccountHeaderInterceptor;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(userAccountHeaderInterceptor).addPathPatterns("/products", "/products/**", "/reactive/products", "/reactive/products/**");
+    }
+}
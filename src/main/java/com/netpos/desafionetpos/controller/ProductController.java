@@ -1,66 +1,175 @@
 package com.netpos.desafionetpos.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.netpos.desafionetpos.config.Constants;
 import com.netpos.desafionetpos.controller.util.AppUtil;
+import com.netpos.desafionetpos.controller.util.RequestThread;
+import com.netpos.desafionetpos.dto.AlterStockResultDTO;
+import com.netpos.desafionetpos.dto.ProductArchiveDTO;
+import com.netpos.desafionetpos.dto.ProductDeleteResultDTO;
 import com.netpos.desafionetpos.dto.ProductDTO;
+import com.netpos.desafionetpos.dto.ProductImportResultDTO;
+import com.netpos.desafionetpos.dto.ProductPageDTO;
+import com.netpos.desafionetpos.dto.StockMovementDTO;
+import com.netpos.desafionetpos.dto.StockMovementPageDTO;
 import com.netpos.desafionetpos.dto.UserAccountDTO;
+import com.netpos.desafionetpos.dto.vm.AlterStockBatchVM;
 import com.netpos.desafionetpos.dto.vm.AlterStockVM;
 import com.netpos.desafionetpos.dto.vm.ProductEditVM;
+import com.netpos.desafionetpos.dto.vm.ProductPatchVM;
+import com.netpos.desafionetpos.service.IdempotencyStore;
+import com.netpos.desafionetpos.service.ProductArchiveService;
+import com.netpos.desafionetpos.service.ProductExportService;
+import com.netpos.desafionetpos.service.ProductImportService;
 import com.netpos.desafionetpos.service.ProductService;
-import com.netpos.desafionetpos.service.UserAccountService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/products")
 public class ProductController {
 
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
+    public static final String TEXT_CSV_VALUE = "text/csv";
+
+    private static final int EXPORT_BUFFER_SIZE = 64 * 1024;
+
     private final Logger log = LoggerFactory.getLogger(ProductController.class);
 
     private final ProductService productService;
 
-    private final UserAccountService userAccountService;
+    private final ProductImportService productImportService;
+
+    private final ProductExportService productExportService;
+
+    private final ObjectMapper objectMapper;
 
-    public ProductController(ProductService productService, UserAccountService userAccountService) {
+    private final IdempotencyStore idempotencyStore;
+
+    private final ProductArchiveService productArchiveService;
+
+    public ProductController(ProductService productService, ProductImportService productImportService,
+                             ProductExportService productExportService, ObjectMapper objectMapper,
+                             IdempotencyStore idempotencyStore, ProductArchiveService productArchiveService) {
         this.productService = productService;
-        this.userAccountService = userAccountService;
+        this.productImportService = productImportService;
+        this.productExportService = productExportService;
+        this.objectMapper = objectMapper;
+        this.idempotencyStore = idempotencyStore;
+        this.productArchiveService = productArchiveService;
     }
 
     /**
      * {@code GET  /products} : Listar produtos com ordenação e filtro.
+     * <p>
+     * When {@code limit} or {@code cursor} is given, only one page is returned, and the cursor of the next page
+     * is sent in the {@code X-Next-Cursor} header.
      *
      * @param userAccountId the UserAccount ID owner of the Products to retrieve.
      * @param filter        the term to use as filter.
      * @param order         the string sort to use.
+     * @param limit         the maximum number of Products in the page.
+     * @param cursor        the cursor returned with the previous page.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of Products in the body.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @GetMapping
     public ResponseEntity<List<ProductDTO>> getAllProductsByFilters(@RequestHeader("user_id") Long userAccountId,
                                                                     @RequestParam(required = false) String filter,
-                                                                    @RequestParam(required = false) String[] order) throws URISyntaxException {
-        log.debug("REST Request to filter Products by UserAccount: {}, term: {}, order: {}", userAccountId, filter, order);
+                                                                    @RequestParam(required = false) String[] order,
+                                                                    @RequestParam(required = false) Integer limit,
+                                                                    @RequestParam(required = false) String cursor) throws URISyntaxException {
+        log.debug("REST Request to filter Products by UserAccount: {}, term: {}, order: {}, limit: {}, cursor: {}", userAccountId, filter, order, limit, cursor);
         List<Sort.Order> sortListFromString = AppUtil.getSortListFromString(order);
-        List<ProductDTO> result = productService.findAllByNameAndCode(userAccountId, filter, Sort.by(sortListFromString));
-        return ResponseEntity.ok(result);
+        if (limit == null && cursor == null) {
+            List<ProductDTO> result = productService.findAllByNameAndCode(userAccountId, filter, Sort.by(sortListFromString));
+            return ResponseEntity.ok(result);
+        }
+
+        ProductPageDTO page = productService.findPageByNameAndCode(userAccountId, filter, Sort.by(sortListFromString), cursor,
+                limit == null ? Constants.DEFAULT_PAGE_SIZE : limit);
+        HttpHeaders headers = new HttpHeaders();
+        if (page.getNextCursor() != null) {
+            headers.add(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return ResponseEntity.ok().headers(headers).body(page.getProducts());
+    }
+
+    /**
+     * {@code GET  /products} : Listar produtos com ordenação e filtro, em formato NDJSON.
+     * <p>
+     * Each Product is written to the response as soon as it is read from the database, one JSON object per line,
+     * so the catalog is never held in memory.
+     *
+     * @param userAccountId the UserAccount ID owner of the Products to retrieve.
+     * @param filter        the term to use as filter.
+     * @param order         the string sort to use.
+     * @param response      the response to write the Products to.
+     * @throws IOException if the response cannot be written.
+     */
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void streamAllProductsByFilters(@RequestHeader("user_id") Long userAccountId,
+                                           @RequestParam(required = false) String filter,
+                                           @RequestParam(required = false) String[] order,
+                                           HttpServletResponse response) throws IOException {
+        log.debug("REST Request to stream Products by UserAccount: {}, term: {}, order: {}", userAccountId, filter, order);
+        List<Sort.Order> sortListFromString = AppUtil.getSortListFromString(order);
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+
+        ObjectWriter productWriter = objectMapper.writerFor(ProductDTO.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        try (JsonGenerator generator = productWriter.getFactory().createGenerator(response.getOutputStream())) {
+            generator.setRootValueSeparator(null);
+            productService.streamAllByNameAndCode(userAccountId, filter, Sort.by(sortListFromString), productDTO -> {
+                try {
+                    productWriter.writeValue(generator, productDTO);
+                    generator.writeRaw('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
     }
 
     /**
      * {@code POST  /products} : Criar um novo Produto.
+     * <p>
+     * A request repeated with the same {@code Idempotency-Key} header is answered with the Product created by the first one.
      *
-     * @param productDTO the Product data to create.
+     * @param productDTO     the Product data to create.
+     * @param idempotencyKey the key identifying the request among its retries, optional.
      * @return the {@link ResponseEntity} com o status {@code 201 (Created)} e com o novo Produto no corpo.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PostMapping
     public ResponseEntity<ProductDTO> createProduct(@RequestHeader("user_id") Long userAccountId,
+                                                    @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
                                                     @RequestBody @Valid ProductDTO productDTO) throws URISyntaxException {
         log.debug("REST Request to create a new Product: {}, for the UserAccountID: {}", productDTO, userAccountId);
 
@@ -68,13 +177,15 @@ public class ProductController {
             return ResponseEntity.badRequest().build();
         }
 
-        UserAccountDTO currentUserAccount = userAccountService.findOne(userAccountId);
-        productDTO.setUserAccount(new UserAccountDTO().id(currentUserAccount.getId()));
+        // The user_id header was already checked against the existing UserAccounts by the UserAccountHeaderInterceptor
+        productDTO.setUserAccount(new UserAccountDTO().id(userAccountId));
 
-        ProductDTO result = productService.save(productDTO, currentUserAccount.getId());
-        return ResponseEntity
-                .created(new URI("/products/product_id" + result.getId()))
-                .body(result);
+        return idempotencyStore.execute(userAccountId, "POST /products", idempotencyKey, productDTO, () -> {
+            ProductDTO result = productService.save(productDTO, userAccountId);
+            return ResponseEntity
+                    .created(new URI("/products/product_id" + result.getId()))
+                    .body(result);
+        });
     }
 
     /**
@@ -90,14 +201,26 @@ public class ProductController {
                                                   @RequestBody ProductEditVM editProductVM) throws URISyntaxException {
         log.debug("REST Request to edit the Product with ID: {}, for the UserAccountID: {}, with data: {}", productId, userAccountId, editProductVM);
 
-        ProductDTO productDTO = productService.findOne(productId, userAccountId);
-        productDTO.setName(editProductVM.getName());
-        productDTO.setPrice(editProductVM.getPrice());
-
-        ProductDTO result = productService.save(productDTO, userAccountId);
+        ProductDTO result = productService.edit(productId, userAccountId, editProductVM);
         return ResponseEntity.ok(result);
     }
 
+    /**
+     * {@code PATCH  /products/{product_id}} : Altera apenas os campos informados de um produto.
+     *
+     * @param productPatchVM the Product fields to change.
+     * @return the {@link ResponseEntity} with status {@code 204 (NO_CONTENT)}.
+     */
+    @PatchMapping("/{product_id}")
+    public ResponseEntity<Void> patchProduct(@RequestHeader("user_id") Long userAccountId,
+                                             @PathVariable("product_id") Long productId,
+                                             @RequestBody @Valid ProductPatchVM productPatchVM) {
+        log.debug("REST Request to patch the Product with ID: {}, for the UserAccountID: {}, with data: {}", productId, userAccountId, productPatchVM);
+
+        productService.patch(productId, userAccountId, productPatchVM);
+        return ResponseEntity.noContent().build();
+    }
+
     /**
      * {@code GET  /products/{product_id}} : Detalhes de um Produto.
      *
@@ -114,6 +237,26 @@ public class ProductController {
         return ResponseEntity.ok(productDTO);
     }
 
+    /**
+     * {@code GET  /products/archived} : Listar os produtos excluídos que já foram arquivados, em ordem de id.
+     *
+     * @param userAccountId the UserAccount ID owner of the archived Products.
+     * @param after         the id of the last Product of the previous page.
+     * @param limit         the maximum number of Products in the page.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the archived Products in the body.
+     */
+    @GetMapping("/archived")
+    public ResponseEntity<List<ProductArchiveDTO>> getArchivedProducts(@RequestHeader("user_id") Long userAccountId,
+                                                                       @RequestParam(required = false) Long after,
+                                                                       @RequestParam(required = false) Integer limit) {
+        log.debug("REST Request to list the archived Products of the UserAccount ID: {}, after: {}, limit: {}", userAccountId, after, limit);
+        int pageSize = limit == null ? Constants.DEFAULT_PAGE_SIZE : limit;
+        if (pageSize < 1 || pageSize > Constants.MAX_PAGE_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(productArchiveService.findAll(userAccountId, after, pageSize));
+    }
+
     /**
      * {@code DELETE  /products/{product_id}} : delete the "id" chamado.
      *
@@ -129,23 +272,176 @@ public class ProductController {
         return ResponseEntity.noContent().build();
     }
 
+    /**
+     * {@code DELETE  /products} : Exclui os produtos informados em {@code ids}, ou todos os produtos cujo nome ou
+     * código contém o {@code filter}.
+     *
+     * @param ids    the ids of the Products to delete.
+     * @param filter the term to search in the name or code of the Products to delete, which must not be blank.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} containing the number of deleted Products in the body,
+     * or with status {@code 400 (Bad Request)} if both or neither of {@code ids} and {@code filter} are given, or the filter is blank.
+     */
+    @DeleteMapping
+    @RequestThread
+    public ResponseEntity<ProductDeleteResultDTO> deleteProducts(@RequestHeader("user_id") Long userAccountId,
+                                                                 @RequestParam(required = false) List<Long> ids,
+                                                                 @RequestParam(required = false) String filter) {
+        log.debug("REST request to delete Products: {}, matching: {}, from UserAccountId: {}", ids, filter, userAccountId);
+        if ((ids == null) == (filter == null)) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        ProductDeleteResultDTO result = ids != null
+                ? productService.deleteAll(ids, userAccountId)
+                : productService.deleteAllByNameAndCode(filter, userAccountId);
+        return ResponseEntity.ok(result);
+    }
+
     /**
      * {@code POST  /products/{product_id}/stock} : Realiza uma operaçao ded entrada ou saida de estoque.
      *
-     * @param userAccountId the UserAccount ID owner of the Products to retrieve.
-     * @param productId     the id of the Product.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the Product in the body.
+     * @param userAccountId  the UserAccount ID owner of the Products to retrieve.
+     * @param idempotencyKey the key identifying the operation among its retries, which are not applied again, optional.
+     * @param productId      the id of the Product.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the applied movement, with the new quantity, in the body.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PostMapping("/{product_id}/stock")
-    public ResponseEntity<Void> alterStock(@RequestHeader("user_id") Long userAccountId,
+    public ResponseEntity<AlterStockResultDTO> alterStock(@RequestHeader("user_id") Long userAccountId,
+                                                 @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
                                                  @PathVariable("product_id") Long productId,
                                                  @RequestBody @Valid AlterStockVM alterStockVM) throws URISyntaxException {
         log.debug("REST Request get details of the Product ID: {}, owned by the UserAccount ID: {}", productId, userAccountId);
-        productService.alterStock(alterStockVM, productId, userAccountId);
-        return ResponseEntity.noContent().build();
+        return idempotencyStore.execute(userAccountId, "POST /products/" + productId + "/stock", idempotencyKey, alterStockVM, () -> {
+            AlterStockResultDTO result = productService.alterStock(alterStockVM, productId, userAccountId);
+            return ResponseEntity.ok(result);
+        });
+    }
+
+    /**
+     * {@code GET  /products/{product_id}/stock/movements} : Historico de movimentações do estoque de um Produto.
+     * <p>
+     * The history is returned one page at a time, and the cursor of the next page is sent in the
+     * {@code X-Next-Cursor} header.
+     *
+     * @param userAccountId the UserAccount ID owner of the Product.
+     * @param productId     the id of the Product.
+     * @param limit         the maximum number of movements in the page.
+     * @param cursor        the cursor returned with the previous page.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the page of movements, newest first, in the body.
+     */
+    @GetMapping("/{product_id}/stock/movements")
+    public ResponseEntity<List<StockMovementDTO>> getStockMovements(@RequestHeader("user_id") Long userAccountId,
+                                                                    @PathVariable("product_id") Long productId,
+                                                                    @RequestParam(required = false) Integer limit,
+                                                                    @RequestParam(required = false) Long cursor) {
+        log.debug("REST Request get Stock movements of the Product ID: {}, owned by the UserAccount ID: {}, limit: {}, cursor: {}", productId, userAccountId, limit, cursor);
+        StockMovementPageDTO page = productService.findStockMovements(productId, userAccountId, cursor,
+                limit == null ? Constants.DEFAULT_PAGE_SIZE : limit);
+        HttpHeaders headers = new HttpHeaders();
+        if (page.getNextCursor() != null) {
+            headers.add(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return ResponseEntity.ok().headers(headers).body(page.getMovements());
+    }
+
+    /**
+     * {@code POST  /products/stock/batch} : Realiza varias operações de entrada ou saida de estoque.
+     *
+     * @param userAccountId     the UserAccount ID owner of the Products.
+     * @param idempotencyKey    the key identifying the batch among its retries, which are not applied again, optional.
+     * @param alterStockBatchVM the movements to apply, in order.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the result of each movement in the body.
+     */
+    @PostMapping("/stock/batch")
+    public ResponseEntity<List<AlterStockResultDTO>> alterStockBatch(@RequestHeader("user_id") Long userAccountId,
+                                                                     @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+                                                                     @RequestBody @Valid AlterStockBatchVM alterStockBatchVM) {
+        log.debug("REST Request to apply a batch of {} Stock movements, owned by the UserAccount ID: {}", alterStockBatchVM.getItems().size(), userAccountId);
+        return idempotencyStore.execute(userAccountId, "POST /products/stock/batch", idempotencyKey, alterStockBatchVM, () -> {
+            List<AlterStockResultDTO> result = productService.alterStockBatch(alterStockBatchVM.getItems(), userAccountId);
+            return ResponseEntity.ok(result);
+        });
     }
 
+    /**
+     * {@code POST  /products/import} : Importar um catálogo de produtos em CSV ou NDJSON.
+     * <p>
+     * The body is read line by line while the Products are saved, one transaction per chunk, so the file is never held in memory.
+     * A CSV file starts with a header naming the columns code, name, price and quantity. An NDJSON file has
+     * one Product per line, in the same format as {@code POST /products}.
+     *
+     * @param userAccountId the UserAccount ID owner of the Products.
+     * @param contentType   {@code text/csv} or {@code application/x-ndjson}, with an optional charset.
+     * @param request       the request to read the file from.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the number of imported Products, the first
+     * {@link Constants#MAX_IMPORT_REJECTIONS} rejected lines and the number of rejected lines in the body.
+     * @throws IOException if the request body cannot be read.
+     */
+    @PostMapping(value = "/import", consumes = {TEXT_CSV_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    @RequestThread
+    public ResponseEntity<ProductImportResultDTO> importProducts(@RequestHeader("user_id") Long userAccountId,
+                                                                 @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                                                                 HttpServletRequest request) throws IOException {
+        log.debug("REST Request to import a {} catalog, owned by the UserAccount ID: {}", contentType, userAccountId);
+        ProductImportService.Format format = MediaType.APPLICATION_NDJSON.isCompatibleWith(contentType)
+                ? ProductImportService.Format.NDJSON : ProductImportService.Format.CSV;
+        Charset charset = contentType.getCharset() == null ? StandardCharsets.UTF_8 : contentType.getCharset();
+        ProductImportResultDTO result = productImportService.importProducts(userAccountId,
+                new InputStreamReader(request.getInputStream(), charset), format);
+        return ResponseEntity.ok(result);
+    }
 
+    /**
+     * {@code GET  /products/export} : Exportar o catálogo de produtos, com a quantidade em estoque, em CSV.
+     * <p>
+     * The rows are written to the response as they are read from the database, so the catalog is never held in memory.
+     * The response is compressed with gzip when the request accepts it.
+     *
+     * @param userAccountId  the UserAccount ID owner of the Products to export.
+     * @param acceptEncoding the encodings accepted by the client.
+     * @param response       the response to write the Products to.
+     * @throws IOException if the response cannot be written.
+     */
+    @GetMapping("/export")
+    public void exportProductsAsCsv(@RequestHeader("user_id") Long userAccountId,
+                                    @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                    HttpServletResponse response) throws IOException {
+        log.debug("REST Request to export the catalog as CSV, owned by the UserAccount ID: {}", userAccountId);
+        response.setContentType(TEXT_CSV_VALUE);
+        try (OutputStream outputStream = exportOutputStream(acceptEncoding, response)) {
+            productExportService.exportCsv(userAccountId, outputStream);
+        }
+    }
+
+    /**
+     * {@code GET  /products/export} : Exportar o catálogo de produtos, com a quantidade em estoque, em NDJSON.
+     *
+     * @param userAccountId  the UserAccount ID owner of the Products to export.
+     * @param acceptEncoding the encodings accepted by the client.
+     * @param response       the response to write the Products to.
+     * @throws IOException if the response cannot be written.
+     * @see #exportProductsAsCsv(Long, String, HttpServletResponse)
+     */
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void exportProductsAsNdjson(@RequestHeader("user_id") Long userAccountId,
+                                       @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                       HttpServletResponse response) throws IOException {
+        log.debug("REST Request to export the catalog as NDJSON, owned by the UserAccount ID: {}", userAccountId);
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        try (OutputStream outputStream = exportOutputStream(acceptEncoding, response)) {
+            productExportService.exportNdjson(userAccountId, outputStream);
+        }
+    }
+
+    private static OutputStream exportOutputStream(String acceptEncoding, HttpServletResponse response) throws IOException {
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (acceptEncoding == null || !acceptEncoding.toLowerCase(Locale.ROOT).contains("gzip")) {
+            return response.getOutputStream();
+        }
+        response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        return new GZIPOutputStream(response.getOutputStream(), EXPORT_BUFFER_SIZE);
+    }
 
 }
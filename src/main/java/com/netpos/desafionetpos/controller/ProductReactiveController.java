@@ -0,0 +1,66 @@
+package com.netpos.desafionetpos.controller;
+
+import com.netpos.desafionetpos.controller.util.AppUtil;
+import com.netpos.desafionetpos.dto.ProductDTO;
+import com.netpos.desafionetpos.service.ProductReactiveService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Non-blocking variant of the {@code GET /products} endpoints of {@link ProductController}.
+ * <p>
+ * The request is processed asynchronously, so no thread is held while the database is read. With
+ * {@code Accept: application/x-ndjson} the Products are written one per line as they are read, and the next rows
+ * are only requested once the previous ones were written to the client. With {@code application/json} they are
+ * collected into a single array, as in {@link ProductController}.
+ */
+@RestController
+@RequestMapping("/reactive/products")
+public class ProductReactiveController {
+
+    private final Logger log = LoggerFactory.getLogger(ProductReactiveController.class);
+
+    private final ProductReactiveService productReactiveService;
+
+    public ProductReactiveController(ProductReactiveService productReactiveService) {
+        this.productReactiveService = productReactiveService;
+    }
+
+    /**
+     * {@code GET  /reactive/products} : Listar produtos com ordenação e filtro.
+     *
+     * @param userAccountId the UserAccount ID owner of the Products to retrieve.
+     * @param filter        the term to use as filter.
+     * @param order         the string sort to use.
+     * @return the Products.
+     */
+    @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<ProductDTO> getAllProductsByFilters(@RequestHeader("user_id") Long userAccountId,
+                                                    @RequestParam(required = false) String filter,
+                                                    @RequestParam(required = false) String[] order) {
+        log.debug("REST Request to filter Products reactively by UserAccount: {}, term: {}, order: {}", userAccountId, filter, order);
+        List<Sort.Order> sortListFromString = AppUtil.getSortListFromString(order);
+        return productReactiveService.findAllByNameAndCode(userAccountId, filter, Sort.by(sortListFromString));
+    }
+
+    /**
+     * {@code GET  /reactive/products/{product_id}} : Detalhes de um Produto.
+     *
+     * @param userAccountId the UserAccount ID owner of the Product to retrieve.
+     * @param productId     the id of the Product.
+     * @return the Product.
+     */
+    @GetMapping("/{product_id}")
+    public Mono<ProductDTO> getOne(@RequestHeader("user_id") Long userAccountId,
+                                   @PathVariable("product_id") Long productId) {
+        log.debug("REST Request reactively get details of the Product ID: {}, owned by the UserAccount ID: {}", productId, userAccountId);
+        return productReactiveService.findOne(productId, userAccountId);
+    }
+}
@@ -10,8 +10,8 @@ import org.springframework.web.bind.annotation.*;
 
 import javax.validation.Valid;
 import java.net.URI;
-import java.net.URISyntaxException;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/users")
@@ -56,20 +56,21 @@ public class UserAccountController {
     /**
      * {@code POST  /users} : Criar um novo UserAccout.
      *
+     * A resposta é enviada quando o hash da senha termina, sem manter a thread da requisição esperando.
+     *
      * @param userAccountVM o UserAccount a criar.
      * @return the {@link ResponseEntity} com o status {@code 201 (Created)} e com o novo UserAccount no corpo, or com o status {@code 400 (Bad Request)} se o UserAccount ja possui um ID.
-     * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PostMapping
-    public ResponseEntity<UserAccountDTO> createUser(@RequestBody @Valid UserAccountVM userAccountVM) throws URISyntaxException {
+    public CompletableFuture<ResponseEntity<UserAccountDTO>> createUser(@RequestBody @Valid UserAccountVM userAccountVM) {
         log.debug("REST Request to create a new UserAccount");
         if (userAccountVM.getId() != null) {
-            return ResponseEntity.badRequest().build();
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().build());
         }
-        UserAccountDTO result = userAccountService.save(userAccountVM);
-        return ResponseEntity
-                .created(new URI("/users/user_id" + result.getId()))
-                .body(result);
+        return userAccountService.save(userAccountVM)
+                .thenApply(result -> ResponseEntity
+                        .created(URI.create("/users/user_id" + result.getId()))
+                        .body(result));
     }
 
 }
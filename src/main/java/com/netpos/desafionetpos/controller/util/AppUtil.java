@@ -10,6 +10,10 @@ public class AppUtil {
     public static List<Order>getSortListFromString (String[] sort) {
         List<Order> orders = new ArrayList<>();
 
+        if (sort == null || sort.length == 0) {
+            return orders;
+        }
+
         if (sort[0].contains(",")) {
             // will sort more than 2 columns
             for (String sortOrder : sort) {
@@ -0,0 +1,87 @@
+package com.netpos.desafionetpos.controller.util;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ConcurrentTaskExecutor;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+import org.springframework.web.servlet.mvc.method.annotation.ServletInvocableHandlerMethod;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Invokes the controller methods of the application on a dedicated pool sized for the JDBC connections,
+ * as if each of them returned a {@link WebAsyncTask}.
+ * <p>
+ * The request arguments are still resolved and validated on the container thread, which is then released while the
+ * controller waits on the database, and the result is written once the pool has produced it. At most one request per
+ * JDBC connection is processed at a time, a bounded number of requests wait for their turn, and the others are
+ * rejected with a {@link TaskRejectedException}, translated into {@code 503 (Service Unavailable)}.
+ * <p>
+ * Each request is given {@code requestTimeout} instead of the default async timeout of the container, and
+ * the OpenEntityManagerInView interceptor binds the EntityManager of the request to the pool thread, so lazy loading
+ * behaves as on the container thread.
+ * <p>
+ * Methods without a return value write the response themselves, so they keep running on the container thread,
+ * as do the methods annotated with {@link RequestThread}, and methods returning a reactive type are already asynchronous.
+ */
+public class JdbcExecutorHandlerAdapter extends RequestMappingHandlerAdapter implements DisposableBean {
+
+    private static final String CONTROLLER_PACKAGE = "com.netpos.desafionetpos.controller";
+
+    private final Logger log = LoggerFactory.getLogger(JdbcExecutorHandlerAdapter.class);
+
+    private final ThreadPoolExecutor executor;
+
+    private final AsyncTaskExecutor taskExecutor;
+
+    private final long requestTimeoutMillis;
+
+    public JdbcExecutorHandlerAdapter(int threads, int queueCapacity, Duration requestTimeout, MeterRegistry meterRegistry) {
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("jdbc-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.taskExecutor = new ConcurrentTaskExecutor(executor);
+        this.requestTimeoutMillis = requestTimeout.toMillis();
+        new ExecutorServiceMetrics(executor, "jdbc", Tags.empty()).bindTo(meterRegistry);
+    }
+
+    @Override
+    protected ServletInvocableHandlerMethod createInvocableHandlerMethod(HandlerMethod handlerMethod) {
+        if (handlerMethod.isVoid() || handlerMethod.hasMethodAnnotation(RequestThread.class)
+                || !handlerMethod.getBeanType().getPackageName().startsWith(CONTROLLER_PACKAGE)
+                || getReactiveAdapterRegistry().getAdapter(handlerMethod.getReturnType().getParameterType()) != null) {
+            return super.createInvocableHandlerMethod(handlerMethod);
+        }
+        return new JdbcExecutorHandlerMethod(handlerMethod);
+    }
+
+    @Override
+    public void destroy() {
+        log.debug("Shutting down the JDBC pool");
+        executor.shutdown();
+    }
+
+    private class JdbcExecutorHandlerMethod extends ServletInvocableHandlerMethod {
+
+        JdbcExecutorHandlerMethod(HandlerMethod handlerMethod) {
+            super(handlerMethod);
+        }
+
+        @Override
+        protected Object doInvoke(Object... args) {
+            return new WebAsyncTask<>(requestTimeoutMillis, taskExecutor, () -> super.doInvoke(args));
+        }
+    }
+}
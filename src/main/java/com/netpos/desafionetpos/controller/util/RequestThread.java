@@ -0,0 +1,21 @@
+package com.netpos.desafionetpos.controller.util;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Keeps a controller method on the container thread when {@code application.execution.mode=async}.
+ * <p>
+ * Meant for long requests, such as an import, which would otherwise hold a JDBC thread for their whole duration and
+ * could outlive {@code application.execution.request-timeout} while their work keeps committing.
+ *
+ * @see JdbcExecutorHandlerAdapter
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface RequestThread {
+}
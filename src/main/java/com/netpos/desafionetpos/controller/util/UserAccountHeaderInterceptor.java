@@ -0,0 +1,44 @@
+package com.netpos.desafionetpos.controller.util;
+
+import com.netpos.desafionetpos.service.UserAccountRegistry;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Rejects the requests whose {@code user_id} header does not belong to an existing UserAccount.
+ * A missing or malformed header is left to the {@code @RequestHeader} binding of the controller.
+ */
+@Component
+public class UserAccountHeaderInterceptor implements HandlerInterceptor {
+
+    public static final String USER_ID_HEADER = "user_id";
+
+    private final UserAccountRegistry userAccountRegistry;
+
+    public UserAccountHeaderInterceptor(UserAccountRegistry userAccountRegistry) {
+        this.userAccountRegistry = userAccountRegistry;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        String userId = request.getHeader(USER_ID_HEADER);
+        if (userId == null) {
+            return true;
+        }
+        Long userAccountId;
+        try {
+            userAccountId = Long.valueOf(userId.trim());
+        } catch (NumberFormatException e) {
+            return true;
+        }
+        if (!userAccountRegistry.exists(userAccountId)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "UserAccount with ID " + userAccountId + " does not exist");
+        }
+        return true;
+    }
+}
@@ -0,0 +1,57 @@
+package com.netpos.desafionetpos.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.netpos.desafionetpos.entity.enumeration.StockOperationStatus;
+
+public class AlterStockResultDTO {
+
+    @JsonProperty("product_id")
+    private Long productId;
+
+    private StockOperationStatus status;
+
+    /**
+     * The quantity left in the Stock by an applied movement, when it is known.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Integer quantity;
+
+    public AlterStockResultDTO() {
+    }
+
+    public AlterStockResultDTO(Long productId, StockOperationStatus status) {
+        this.productId = productId;
+        this.status = status;
+    }
+
+    public AlterStockResultDTO(Long productId, StockOperationStatus status, Integer quantity) {
+        this.productId = productId;
+        this.status = status;
+        this.quantity = quantity;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+
+    public StockOperationStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(StockOperationStatus status) {
+        this.status = status;
+    }
+
+    public Integer getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(Integer quantity) {
+        this.quantity = quantity;
+    }
+}
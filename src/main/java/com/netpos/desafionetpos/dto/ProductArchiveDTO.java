@@ -0,0 +1,104 @@
+package com.netpos.desafionetpos.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+public class ProductArchiveDTO {
+
+    private Long id;
+
+    private String name;
+
+    private String code;
+
+    private BigDecimal price;
+
+    @JsonProperty("stock_quantity")
+    private Integer stockQuantity;
+
+    @JsonProperty("user_account_id")
+    private Long userAccountId;
+
+    @JsonProperty("created_date")
+    private Instant createdDate;
+
+    @JsonProperty("deleted_date")
+    private Instant deletedDate;
+
+    @JsonProperty("archived_date")
+    private Instant archivedDate;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public void setCode(String code) {
+        this.code = code;
+    }
+
+    public BigDecimal getPrice() {
+        return price;
+    }
+
+    public void setPrice(BigDecimal price) {
+        this.price = price;
+    }
+
+    public Integer getStockQuantity() {
+        return stockQuantity;
+    }
+
+    public void setStockQuantity(Integer stockQuantity) {
+        this.stockQuantity = stockQuantity;
+    }
+
+    public Long getUserAccountId() {
+        return userAccountId;
+    }
+
+    public void setUserAccountId(Long userAccountId) {
+        this.userAccountId = userAccountId;
+    }
+
+    public Instant getCreatedDate() {
+        return createdDate;
+    }
+
+    public void setCreatedDate(Instant createdDate) {
+        this.createdDate = createdDate;
+    }
+
+    public Instant getDeletedDate() {
+        return deletedDate;
+    }
+
+    public void setDeletedDate(Instant deletedDate) {
+        this.deletedDate = deletedDate;
+    }
+
+    public Instant getArchivedDate() {
+        return archivedDate;
+    }
+
+    public void setArchivedDate(Instant archivedDate) {
+        this.archivedDate = archivedDate;
+    }
+}
@@ -1,6 +1,7 @@
 package com.netpos.desafionetpos.dto;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 
 import javax.validation.constraints.*;
 import java.math.BigDecimal;
@@ -22,9 +23,34 @@ public class ProductDTO {
 
     private StockDTO stock;
 
+    /**
+     * The version of the Product when it was read, sent back with {@code PUT /products/{id}} to detect a concurrent change.
+     */
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long version;
+
     @JsonIgnore
     private UserAccountDTO userAccount;
 
+    public ProductDTO() {
+    }
+
+    /**
+     * Build a Product read straight from a query, without loading the entity.
+     * The UserAccount is left empty, as it is never written to the response.
+     */
+    public ProductDTO(Long id, String name, String code, BigDecimal price, Long version, Long stockId, Integer stockQuantity) {
+        this.id = id;
+        this.name = name;
+        this.code = code;
+        this.price = price;
+        this.version = version;
+        if (stockId != null) {
+            this.stock = new StockDTO().quantity(stockQuantity);
+            this.stock.setId(stockId);
+        }
+    }
+
     public Long getId() {
         return id;
     }
@@ -66,6 +92,14 @@ public class ProductDTO {
     }
 
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public UserAccountDTO getUserAccount() {
         return userAccount;
     }
@@ -0,0 +1,21 @@
+package com.netpos.desafionetpos.dto;
+
+public class ProductDeleteResultDTO {
+
+    private long deleted;
+
+    public ProductDeleteResultDTO() {
+    }
+
+    public ProductDeleteResultDTO(long deleted) {
+        this.deleted = deleted;
+    }
+
+    public long getDeleted() {
+        return deleted;
+    }
+
+    public void setDeleted(long deleted) {
+        this.deleted = deleted;
+    }
+}
@@ -0,0 +1,32 @@
+package com.netpos.desafionetpos.dto;
+
+public class ProductImportRejectionDTO {
+
+    private long line;
+
+    private String reason;
+
+    public ProductImportRejectionDTO() {
+    }
+
+    public ProductImportRejectionDTO(long line, String reason) {
+        this.line = line;
+        this.reason = reason;
+    }
+
+    public long getLine() {
+        return line;
+    }
+
+    public void setLine(long line) {
+        this.line = line;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    public void setReason(String reason) {
+        this.reason = reason;
+    }
+}
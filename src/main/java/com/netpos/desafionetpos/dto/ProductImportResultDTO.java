@@ -0,0 +1,40 @@
+package com.netpos.desafionetpos.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ProductImportResultDTO {
+
+    private long imported;
+
+    private List<ProductImportRejectionDTO> rejected = new ArrayList<>();
+
+    @JsonProperty("rejected_count")
+    private long rejectedCount;
+
+    public long getImported() {
+        return imported;
+    }
+
+    public void setImported(long imported) {
+        this.imported = imported;
+    }
+
+    public List<ProductImportRejectionDTO> getRejected() {
+        return rejected;
+    }
+
+    public void setRejected(List<ProductImportRejectionDTO> rejected) {
+        this.rejected = rejected;
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount;
+    }
+
+    public void setRejectedCount(long rejectedCount) {
+        this.rejectedCount = rejectedCount;
+    }
+}
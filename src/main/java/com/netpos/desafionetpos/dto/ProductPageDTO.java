@@ -0,0 +1,31 @@
+package com.netpos.desafionetpos.dto;
+
+import java.util.List;
+
+public class ProductPageDTO {
+
+    private List<ProductDTO> products;
+
+    private String nextCursor;
+
+    public ProductPageDTO(List<ProductDTO> products, String nextCursor) {
+        this.products = products;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<ProductDTO> getProducts() {
+        return products;
+    }
+
+    public void setProducts(List<ProductDTO> products) {
+        this.products = products;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
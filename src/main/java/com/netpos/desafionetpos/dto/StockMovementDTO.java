@@ -0,0 +1,40 @@
+package com.netpos.desafionetpos.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.netpos.desafionetpos.entity.enumeration.Operation;
+
+import java.time.Instant;
+
+public class StockMovementDTO {
+
+    private Operation operation;
+
+    private Integer quantity;
+
+    @JsonProperty("created_date")
+    private Instant createdDate;
+
+    public Operation getOperation() {
+        return operation;
+    }
+
+    public void setOperation(Operation operation) {
+        this.operation = operation;
+    }
+
+    public Integer getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(Integer quantity) {
+        this.quantity = quantity;
+    }
+
+    public Instant getCreatedDate() {
+        return createdDate;
+    }
+
+    public void setCreatedDate(Instant createdDate) {
+        this.createdDate = createdDate;
+    }
+}
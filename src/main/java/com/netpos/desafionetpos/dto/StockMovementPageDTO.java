@@ -0,0 +1,31 @@
+package com.netpos.desafionetpos.dto;
+
+import java.util.List;
+
+public class StockMovementPageDTO {
+
+    private List<StockMovementDTO> movements;
+
+    private String nextCursor;
+
+    public StockMovementPageDTO(List<StockMovementDTO> movements, String nextCursor) {
+        this.movements = movements;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<StockMovementDTO> getMovements() {
+        return movements;
+    }
+
+    public void setMovements(List<StockMovementDTO> movements) {
+        this.movements = movements;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
@@ -0,0 +1,28 @@
+package com.netpos.desafionetpos.dto.vm;
+
+import com.netpos.desafionetpos.config.Constants;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.Size;
+import java.util.List;
+
+/**
+ * View Model class to alter the Stock of several Products at once.
+ */
+public class AlterStockBatchVM {
+
+    @NotEmpty
+    @Size(max = Constants.MAX_STOCK_BATCH_SIZE)
+    @Valid
+    private List<AlterStockItemVM> items;
+
+    public List<AlterStockItemVM> getItems() {
+        return items;
+    }
+
+    public void setItems(List<AlterStockItemVM> items) {
+        this.items = items;
+    }
+
+}
@@ -0,0 +1,24 @@
+package com.netpos.desafionetpos.dto.vm;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import javax.validation.constraints.NotNull;
+
+/**
+ * View Model class to alter the Stock of one Product inside a batch.
+ */
+public class AlterStockItemVM extends AlterStockVM {
+
+    @NotNull
+    @JsonProperty("product_id")
+    private Long productId;
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+
+}
@@ -17,6 +17,11 @@ public class ProductEditVM {
     @NotNull
     private BigDecimal price;
 
+    /**
+     * The version read with the Product, the edit is rejected if the Product changed since. Optional.
+     */
+    private Long version;
+
     public String getName() {
         return name;
     }
@@ -33,4 +38,12 @@ public class ProductEditVM {
         this.price = price;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
 }
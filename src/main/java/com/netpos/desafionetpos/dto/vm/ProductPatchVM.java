@@ -0,0 +1,34 @@
+package com.netpos.desafionetpos.dto.vm;
+
+import javax.validation.constraints.Pattern;
+import javax.validation.constraints.Size;
+import java.math.BigDecimal;
+
+/**
+ * View Model class to change some fields of an Product, the fields left {@code null} are kept.
+ */
+public class ProductPatchVM {
+
+    @Size(max = 254)
+    @Pattern(regexp = ".*\\S.*", message = "must not be blank")
+    private String name;
+
+    private BigDecimal price;
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public BigDecimal getPrice() {
+        return price;
+    }
+
+    public void setPrice(BigDecimal price) {
+        this.price = price;
+    }
+
+}
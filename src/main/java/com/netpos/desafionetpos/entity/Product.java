@@ -11,15 +11,21 @@ import java.math.BigDecimal;
 import java.time.Instant;
 
 
-@SQLDelete(sql = "UPDATE product SET deleted_date = CURRENT_TIME WHERE id = ?", check = ResultCheckStyle.COUNT)
+@SQLDelete(sql = "UPDATE product SET deleted_date = CURRENT_TIMESTAMP, version = version + 1 WHERE id = ? AND version = ?", check = ResultCheckStyle.COUNT)
 @Where(clause = "deleted_date is null")
 @Entity
 public class Product extends AbstractAuditingEntity {
 
     private static final long serialVersionUID = 1L;
 
+    /**
+     * Unique constraint on the code of the live Products of a UserAccount, created by the migrations.
+     */
+    public static final String CODE_UNIQUE_CONSTRAINT = "ux_product_user_account_live_code";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "productSequence")
+    @SequenceGenerator(name = "productSequence", sequenceName = "product_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank
@@ -34,17 +40,21 @@ public class Product extends AbstractAuditingEntity {
     @Column(nullable = false)
     private BigDecimal price;
 
-    @OneToOne(cascade = {CascadeType.PERSIST, CascadeType.MERGE})
+    @OneToOne(fetch = FetchType.LAZY, cascade = {CascadeType.PERSIST, CascadeType.MERGE})
     @JoinColumn(unique = true)
     private Stock stock;
 
-    @ManyToOne()
+    @ManyToOne(fetch = FetchType.LAZY)
     @JsonIgnoreProperties(value = "products", allowSetters = true)
     private UserAccount userAccount;
 
     @Column
     private Instant deletedDate;
 
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     public Long getId() {
         return id;
     }
@@ -100,4 +110,12 @@ public class Product extends AbstractAuditingEntity {
     public void setDeletedDate(Instant deletedDate) {
         this.deletedDate = deletedDate;
     }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
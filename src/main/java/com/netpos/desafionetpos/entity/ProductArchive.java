@@ -0,0 +1,131 @@
+package com.netpos.desafionetpos.entity;
+
+import org.hibernate.annotations.Immutable;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * A soft deleted {@link Product} moved out of the hot tables, with the quantity its {@link Stock} had when it was archived.
+ * Rows are only written by {@link com.netpos.desafionetpos.repository.ProductArchiveRepositoryCustom#archiveDeletedBefore}.
+ */
+@Entity
+@Immutable
+public class ProductArchive implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    private Long id;
+
+    @Column(nullable = false, length = 254)
+    private String name;
+
+    @Column(length = 50)
+    private String code;
+
+    @Column(nullable = false)
+    private BigDecimal price;
+
+    @Column
+    private Integer stockQuantity;
+
+    @Column
+    private Long userAccountId;
+
+    @Column
+    private Instant createdDate;
+
+    @Column
+    private Instant lastModifiedDate;
+
+    @Column(nullable = false)
+    private Instant deletedDate;
+
+    @Column(nullable = false)
+    private Instant archivedDate;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public void setCode(String code) {
+        this.code = code;
+    }
+
+    public BigDecimal getPrice() {
+        return price;
+    }
+
+    public void setPrice(BigDecimal price) {
+        this.price = price;
+    }
+
+    public Integer getStockQuantity() {
+        return stockQuantity;
+    }
+
+    public void setStockQuantity(Integer stockQuantity) {
+        this.stockQuantity = stockQuantity;
+    }
+
+    public Long getUserAccountId() {
+        return userAccountId;
+    }
+
+    public void setUserAccountId(Long userAccountId) {
+        this.userAccountId = userAccountId;
+    }
+
+    public Instant getCreatedDate() {
+        return createdDate;
+    }
+
+    public void setCreatedDate(Instant createdDate) {
+        this.createdDate = createdDate;
+    }
+
+    public Instant getLastModifiedDate() {
+        return lastModifiedDate;
+    }
+
+    public void setLastModifiedDate(Instant lastModifiedDate) {
+        this.lastModifiedDate = lastModifiedDate;
+    }
+
+    public Instant getDeletedDate() {
+        return deletedDate;
+    }
+
+    public void setDeletedDate(Instant deletedDate) {
+        this.deletedDate = deletedDate;
+    }
+
+    public Instant getArchivedDate() {
+        return archivedDate;
+    }
+
+    public void setArchivedDate(Instant archivedDate) {
+        this.archivedDate = archivedDate;
+    }
+}
@@ -12,7 +12,8 @@ public class Stock extends AbstractAuditingEntity {
     private static final long serialVersionUID = 1L;
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "stockSequence")
+    @SequenceGenerator(name = "stockSequence", sequenceName = "stock_seq", allocationSize = 50)
     private Long id;
 
     @Min(0)
@@ -20,6 +21,10 @@ public class Stock extends AbstractAuditingEntity {
     @Column(nullable = false)
     private Integer quantity;
 
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     public Long getId() {
         return id;
     }
@@ -36,6 +41,14 @@ public class Stock extends AbstractAuditingEntity {
         this.quantity = quantity;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public Stock quantity(Integer quantity) {
         this.quantity = quantity;
         return this;
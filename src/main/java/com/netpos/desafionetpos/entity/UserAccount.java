@@ -15,7 +15,8 @@ public class UserAccount extends AbstractAuditingEntity {
     private static final long serialVersionUID = 1L;
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "userAccountSequence")
+    @SequenceGenerator(name = "userAccountSequence", sequenceName = "user_account_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, length = 50)
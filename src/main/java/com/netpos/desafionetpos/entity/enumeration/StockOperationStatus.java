@@ -0,0 +1,5 @@
+package com.netpos.desafionetpos.entity.enumeration;
+
+public enum StockOperationStatus {
+    APPLIED, NOT_FOUND, INSUFFICIENT_STOCK, STOCK_LIMIT_EXCEEDED
+}
@@ -0,0 +1,48 @@
+package com.netpos.desafionetpos.management;
+
+import com.netpos.desafionetpos.dto.ProductArchiveDTO;
+import com.netpos.desafionetpos.service.ProductArchiveService;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Read-only admin access to the archived Products of every UserAccount:
+ * {@code GET /actuator/archivedproducts?userAccountId=&after=&limit=} and {@code GET /actuator/archivedproducts/{id}}.
+ * <p>
+ * It is not in {@code management.endpoints.web.exposure.include}, so the public web port never serves it. Expose it
+ * only on a management port reachable by the operators ({@code management.server.port}). The users read their own
+ * archived Products from {@code GET /products/archived}.
+ */
+@Component
+@Endpoint(id = "archivedproducts")
+public class ArchivedProductsEndpoint {
+
+    private static final int DEFAULT_LIMIT = 100;
+
+    private static final int MAX_LIMIT = 1000;
+
+    private final ProductArchiveService productArchiveService;
+
+    public ArchivedProductsEndpoint(ProductArchiveService productArchiveService) {
+        this.productArchiveService = productArchiveService;
+    }
+
+    @ReadOperation
+    public List<ProductArchiveDTO> archivedProducts(@Nullable Long userAccountId, @Nullable Long after, @Nullable Integer limit) {
+        int pageSize = limit == null ? DEFAULT_LIMIT : Math.max(1, Math.min(limit, MAX_LIMIT));
+        return productArchiveService.findAll(userAccountId, after, pageSize);
+    }
+
+    /**
+     * @return the archived Product, or {@code null}, answered with {@code 404 (Not Found)}.
+     */
+    @ReadOperation
+    public ProductArchiveDTO archivedProduct(@Selector Long id) {
+        return productArchiveService.findOne(id).orElse(null);
+    }
+}
@@ -0,0 +1,10 @@
+package com.netpos.desafionetpos.mapper;
+
+import com.netpos.desafionetpos.dto.ProductArchiveDTO;
+import com.netpos.desafionetpos.entity.ProductArchive;
+import org.mapstruct.Mapper;
+
+@Mapper(componentModel = "spring")
+public interface ProductArchiveMapper extends EntityMapper<ProductArchiveDTO, ProductArchive> {
+
+}
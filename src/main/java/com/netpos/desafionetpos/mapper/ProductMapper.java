@@ -14,6 +14,7 @@ public interface ProductMapper extends EntityMapper<ProductDTO, Product> {
 
     @Mapping(source = "userAccount.id", target = "userAccount.id")
     @Mapping(source = "stock.id", target = "stock.id")
+    @Mapping(target = "version", ignore = true)
     Product toEntity(ProductDTO productDTO);
 
 }
@@ -0,0 +1,10 @@
+package com.netpos.desafionetpos.mapper;
+
+import com.netpos.desafionetpos.dto.StockMovementDTO;
+import com.netpos.desafionetpos.entity.StockMovement;
+import org.mapstruct.Mapper;
+
+@Mapper(componentModel = "spring")
+public interface StockMovementMapper extends EntityMapper<StockMovementDTO, StockMovement> {
+
+}
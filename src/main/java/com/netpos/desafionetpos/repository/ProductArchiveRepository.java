@@ -0,0 +1,17 @@
+package com.netpos.desafionetpos.repository;
+
+import com.netpos.desafionetpos.entity.ProductArchive;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ProductArchiveRepository extends JpaRepository<ProductArchive, Long>, ProductArchiveRepositoryCustom {
+
+    List<ProductArchive> findByUserAccountIdAndIdGreaterThanOrderById(Long userAccountId, Long id, Pageable pageable);
+
+    List<ProductArchive> findByIdGreaterThanOrderById(Long id, Pageable pageable);
+
+}
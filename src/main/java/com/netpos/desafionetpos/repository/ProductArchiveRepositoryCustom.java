@@ -0,0 +1,30 @@
+package com.netpos.desafionetpos.repository;
+
+import java.time.Instant;
+
+public interface ProductArchiveRepositoryCustom {
+
+    /**
+     * Move one batch of the Products soft deleted before {@code cutoff}, oldest first, to the archive tables.
+     * The quantity of each Stock is copied to the archived Product and its StockMovements to their own archive,
+     * then the Product, its StockMovements and its Stock are deleted from the hot tables.
+     * Must run inside a transaction, which bounds the rows locked to one batch.
+     *
+     * @param cutoff    the Products deleted at or after this instant are kept.
+     * @param batchSize the maximum number of Products to move.
+     * @return the number of Products moved, lower than {@code batchSize} once none is left to archive.
+     */
+    int archiveDeletedBefore(Instant cutoff, int batchSize);
+
+    /**
+     * Move one batch of the StockMovements created before {@code cutoff}, oldest first, to their archive table and
+     * delete them from the ledger. The quantity of the Stock is not changed.
+     * Must run inside a transaction, which bounds the rows locked to one batch.
+     *
+     * @param cutoff    the StockMovements created at or after this instant are kept.
+     * @param batchSize the maximum number of StockMovements to move.
+     * @return the number of StockMovements moved, lower than {@code batchSize} once none is left to archive.
+     */
+    int archiveMovementsCreatedBefore(Instant cutoff, int batchSize);
+
+}
@@ -0,0 +1,132 @@
+package com.netpos.desafionetpos.repository;
+
+import org.hibernate.Session;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+
+public class ProductArchiveRepositoryImpl implements ProductArchiveRepositoryCustom {
+
+    /*
+     * Ordered by the indexed column alone, so the database walks ix_product_deleted_date and stops after one batch.
+     */
+    private static final String SELECT_BATCH_SQL = "SELECT id, stock_id FROM product WHERE deleted_date < ? " +
+            "ORDER BY deleted_date FETCH FIRST ? ROWS ONLY";
+
+    private static final String ARCHIVE_PRODUCTS_SQL = "INSERT INTO product_archive (id, created_date, last_modified_date, code, deleted_date, " +
+            "name, price, stock_quantity, user_account_id, archived_date) " +
+            "SELECT product.id, product.created_date, product.last_modified_date, product.code, product.deleted_date, " +
+            "product.name, product.price, stock.quantity, product.user_account_id, CURRENT_TIMESTAMP " +
+            "FROM product LEFT JOIN stock ON stock.id = product.stock_id WHERE product.id IN ";
+
+    private static final String ARCHIVE_MOVEMENTS_SQL = "INSERT INTO stock_movement_archive (id, created_date, last_modified_date, operation, " +
+            "quantity, product_id, user_account_id, archived_date) " +
+            "SELECT movement.id, movement.created_date, movement.last_modified_date, movement.operation, " +
+            "movement.quantity, product.id, movement.user_account_id, CURRENT_TIMESTAMP " +
+            "FROM product JOIN stock_movement movement ON movement.stock_id = product.stock_id WHERE product.id IN ";
+
+    private static final String DELETE_MOVEMENTS_SQL = "DELETE FROM stock_movement WHERE stock_id IN ";
+
+    /*
+     * Ordered by the indexed column alone, so the database walks ix_stock_movement_created_date and stops after one batch.
+     */
+    private static final String SELECT_MOVEMENT_BATCH_SQL = "SELECT id FROM stock_movement WHERE created_date < ? " +
+            "ORDER BY created_date FETCH FIRST ? ROWS ONLY";
+
+    private static final String ARCHIVE_MOVEMENTS_BY_ID_SQL = "INSERT INTO stock_movement_archive (id, created_date, last_modified_date, operation, " +
+            "quantity, product_id, user_account_id, archived_date) " +
+            "SELECT movement.id, movement.created_date, movement.last_modified_date, movement.operation, " +
+            "movement.quantity, product.id, movement.user_account_id, CURRENT_TIMESTAMP " +
+            "FROM stock_movement movement JOIN product ON product.stock_id = movement.stock_id WHERE movement.id IN ";
+
+    private static final String DELETE_MOVEMENTS_BY_ID_SQL = "DELETE FROM stock_movement WHERE id IN ";
+
+    private static final String DELETE_PRODUCTS_SQL = "DELETE FROM product WHERE id IN ";
+
+    private static final String DELETE_STOCKS_SQL = "DELETE FROM stock WHERE id IN ";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public int archiveDeletedBefore(Instant cutoff, int batchSize) {
+        return entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            long[] productIds = new long[batchSize];
+            long[] stockIds = new long[batchSize];
+            int productCount = 0;
+            int stockCount = 0;
+            try (PreparedStatement statement = connection.prepareStatement(SELECT_BATCH_SQL)) {
+                statement.setTimestamp(1, Timestamp.from(cutoff));
+                statement.setInt(2, batchSize);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        productIds[productCount++] = resultSet.getLong(1);
+                        long stockId = resultSet.getLong(2);
+                        if (!resultSet.wasNull()) {
+                            stockIds[stockCount++] = stockId;
+                        }
+                    }
+                }
+            }
+            if (productCount == 0) {
+                return 0;
+            }
+            productIds = Arrays.copyOf(productIds, productCount);
+            stockIds = Arrays.copyOf(stockIds, stockCount);
+
+            // the archives are written before the rows they copy are deleted, children before their parents
+            executeForIds(connection, ARCHIVE_PRODUCTS_SQL, productIds);
+            executeForIds(connection, ARCHIVE_MOVEMENTS_SQL, productIds);
+            executeForIds(connection, DELETE_MOVEMENTS_SQL, stockIds);
+            executeForIds(connection, DELETE_PRODUCTS_SQL, productIds);
+            executeForIds(connection, DELETE_STOCKS_SQL, stockIds);
+            return productCount;
+        });
+    }
+
+    @Override
+    public int archiveMovementsCreatedBefore(Instant cutoff, int batchSize) {
+        return entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            long[] movementIds = new long[batchSize];
+            int movementCount = 0;
+            try (PreparedStatement statement = connection.prepareStatement(SELECT_MOVEMENT_BATCH_SQL)) {
+                statement.setTimestamp(1, Timestamp.from(cutoff));
+                statement.setInt(2, batchSize);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        movementIds[movementCount++] = resultSet.getLong(1);
+                    }
+                }
+            }
+            if (movementCount == 0) {
+                return 0;
+            }
+            movementIds = Arrays.copyOf(movementIds, movementCount);
+
+            executeForIds(connection, ARCHIVE_MOVEMENTS_BY_ID_SQL, movementIds);
+            executeForIds(connection, DELETE_MOVEMENTS_BY_ID_SQL, movementIds);
+            return movementCount;
+        });
+    }
+
+    private static void executeForIds(Connection connection, String sql, long[] ids) throws SQLException {
+        if (ids.length == 0) {
+            return;
+        }
+        String placeholders = String.join(", ", Collections.nCopies(ids.length, "?"));
+        try (PreparedStatement statement = connection.prepareStatement(sql + "(" + placeholders + ")")) {
+            for (int i = 0; i < ids.length; i++) {
+                statement.setLong(i + 1, ids[i]);
+            }
+            statement.executeUpdate();
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.netpos.desafionetpos.repository;
+
+import com.netpos.desafionetpos.dto.ProductDTO;
+import io.r2dbc.spi.Row;
+import org.springframework.data.domain.Sort;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Non-blocking Product queries, read with R2DBC straight into {@link ProductDTO}s.
+ * Only the reactive read path uses it, the writes and the blocking reads go through {@link ProductRepository}.
+ */
+@Repository
+public class ProductReactiveRepository {
+
+    private static final String SELECT_PRODUCT_DTO = "SELECT product.id, product.name, product.code, product.price, product.version, " +
+            "stock.id AS stock_id, stock.quantity FROM product LEFT JOIN stock ON stock.id = product.stock_id " +
+            "WHERE product.user_account_id = :userAccountId AND product.deleted_date IS NULL ";
+
+    private static final Map<String, String> SORT_COLUMNS = Map.of(
+            "id", "product.id",
+            "name", "product.name",
+            "code", "product.code",
+            "price", "product.price");
+
+    private final DatabaseClient databaseClient;
+
+    public ProductReactiveRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    /**
+     * Find the Products of a UserAccount whose name or code contains the filter, with the same semantics as
+     * {@link ProductRepository#findDtoByFilters}. Rows are only read as fast as the subscriber requests them.
+     *
+     * @param userAccountId the id of the UserAccount who owns the Products.
+     * @param filter        the term to search in the name or code, or {@code null} to find every Product.
+     * @param sort          the sort, on the properties id, name, code or price.
+     * @return the Products found.
+     * @throws IllegalArgumentException if a sort property is not supported.
+     */
+    public Flux<ProductDTO> findDtoByFilters(Long userAccountId, String filter, Sort sort) {
+        String sql = SELECT_PRODUCT_DTO + "AND (product.name LIKE :pattern OR product.code LIKE :pattern)" + orderBy(sort);
+        return databaseClient.sql(sql)
+                .bind("userAccountId", userAccountId)
+                .bind("pattern", "%" + (filter == null ? "" : filter) + "%")
+                .map(ProductReactiveRepository::toDto)
+                .all();
+    }
+
+    public Mono<ProductDTO> findDtoByIdAndUserAccount(Long id, Long userAccountId) {
+        return databaseClient.sql(SELECT_PRODUCT_DTO + "AND product.id = :id")
+                .bind("userAccountId", userAccountId)
+                .bind("id", id)
+                .map(ProductReactiveRepository::toDto)
+                .one();
+    }
+
+    private static String orderBy(Sort sort) {
+        if (sort.isUnsorted()) {
+            return "";
+        }
+        return sort.stream()
+                .map(order -> {
+                    String column = SORT_COLUMNS.get(order.getProperty());
+                    if (column == null) {
+                        throw new IllegalArgumentException("Cannot sort Products by " + order.getProperty());
+                    }
+                    return column + (order.isAscending() ? " ASC" : " DESC");
+                })
+                .collect(Collectors.joining(", ", " ORDER BY ", ""));
+    }
+
+    private static ProductDTO toDto(Row row) {
+        return new ProductDTO(row.get("id", Long.class), row.get("name", String.class), row.get("code", String.class),
+                row.get("price", BigDecimal.class), row.get("version", Long.class), row.get("stock_id", Long.class),
+                row.get("quantity", Integer.class));
+    }
+}
@@ -1,26 +1,111 @@
 package com.netpos.desafionetpos.repository;
 
+import com.netpos.desafionetpos.config.Constants;
+import com.netpos.desafionetpos.dto.ProductDTO;
 import com.netpos.desafionetpos.entity.Product;
+import com.netpos.desafionetpos.repository.projection.ProductSearchTerm;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, ProductRepositoryCustom {
 
-    @Query("SELECT product FROM Product product " +
-            "LEFT JOIN product.stock stock " +
+    /**
+     * Read-only queries build the {@link ProductDTO} in the select clause, so no entity is loaded or tracked.
+     */
+    String SELECT_PRODUCT_DTO = "SELECT new com.netpos.desafionetpos.dto.ProductDTO(" +
+            "product.id, product.name, product.code, product.price, product.version, stock.id, stock.quantity) " +
+            "FROM Product product " +
+            "LEFT JOIN product.stock stock ";
+
+    @Query(SELECT_PRODUCT_DTO +
             "WHERE product.userAccount.id = :userAccountId " +
             "AND (product.name LIKE %:filter% OR product.code LIKE %:filter%)")
-    List<Product> findByFilters(@Param("userAccountId") Long userAccountId, @Param("filter") String filter, Sort sort);
+    List<ProductDTO> findDtoByFilters(@Param("userAccountId") Long userAccountId, @Param("filter") String filter, Sort sort);
 
-    Optional<Product> findOneByCodeAndUserAccount_Id(String code, Long userAccountId);
+    @Query(SELECT_PRODUCT_DTO +
+            "WHERE product.userAccount.id = :userAccountId " +
+            "AND product.id IN :ids " +
+            "AND (product.name LIKE %:filter% OR product.code LIKE %:filter%)")
+    List<ProductDTO> findDtoByFiltersAndIdIn(@Param("userAccountId") Long userAccountId, @Param("filter") String filter,
+                                       @Param("ids") Collection<Long> ids, Sort sort);
 
+    @Query("SELECT product.id AS id, product.name AS name, product.code AS code FROM Product product " +
+            "WHERE product.userAccount.id = :userAccountId")
+    List<ProductSearchTerm> findSearchTermsByUserAccount(@Param("userAccountId") Long userAccountId);
+
+    /**
+     * Stream the Products of a UserAccount, fetched from the database in chunks of {@link Constants#STREAM_FETCH_SIZE} rows.
+     * Each row is built into a {@link ProductDTO}, so nothing is added to the persistence context while streaming.
+     * The caller must consume and close the stream inside a transaction.
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "" + Constants.STREAM_FETCH_SIZE))
+    @Query(SELECT_PRODUCT_DTO +
+            "WHERE product.userAccount.id = :userAccountId " +
+            "AND (product.name LIKE %:filter% OR product.code LIKE %:filter%)")
+    Stream<ProductDTO> streamDtoByFilters(@Param("userAccountId") Long userAccountId, @Param("filter") String filter, Sort sort);
+
+    /**
+     * The derived query would join user_account and filter on the joined id, which keeps the database from using the
+     * (user_account_id, code) index, so the foreign key column of product is compared instead.
+     */
+    @Query("SELECT product FROM Product product " +
+            "WHERE product.userAccount.id = :userAccountId AND product.code = :code")
+    Optional<Product> findOneByCodeAndUserAccount_Id(@Param("code") String code, @Param("userAccountId") Long userAccountId);
+
+    @EntityGraph(attributePaths = {"userAccount", "stock"})
     Optional<Product> findOneByIdAndUserAccount_Id(Long id, Long userAccountId);
 
+    @Query(SELECT_PRODUCT_DTO +
+            "WHERE product.id = :id AND product.userAccount.id = :userAccountId")
+    Optional<ProductDTO> findDtoByIdAndUserAccount(@Param("id") Long id, @Param("userAccountId") Long userAccountId);
+
+    @Query("SELECT product.id FROM Product product " +
+            "WHERE product.userAccount.id = :userAccountId " +
+            "AND product.id IN :ids")
+    Set<Long> findIdsByUserAccount(@Param("ids") Collection<Long> ids, @Param("userAccountId") Long userAccountId);
+
+    /**
+     * Soft delete the Products of a UserAccount whose name or code contains the filter with a single UPDATE,
+     * without reading their ids.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Product product SET product.deletedDate = CURRENT_TIMESTAMP, product.version = product.version + 1 " +
+            "WHERE product.userAccount.id = :userAccountId " +
+            "AND (product.name LIKE %:filter% OR product.code LIKE %:filter%) " +
+            "AND product.deletedDate IS NULL")
+    int softDeleteByFilters(@Param("userAccountId") Long userAccountId, @Param("filter") String filter);
+
+    /**
+     * Soft delete the Products of a UserAccount among the given ids with a single UPDATE, without loading them.
+     * The owner is checked by the same statement, so the number of deleted rows tells how many ids were found.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Product product SET product.deletedDate = CURRENT_TIMESTAMP, product.version = product.version + 1 " +
+            "WHERE product.userAccount.id = :userAccountId " +
+            "AND product.id IN :ids " +
+            "AND product.deletedDate IS NULL")
+    int softDeleteByUserAccount(@Param("ids") Collection<Long> ids, @Param("userAccountId") Long userAccountId);
+
+    @Query("SELECT product.code FROM Product product " +
+            "WHERE product.userAccount.id = :userAccountId " +
+            "AND product.code IN :codes")
+    Set<String> findCodesByUserAccount(@Param("codes") Collection<String> codes, @Param("userAccountId") Long userAccountId);
+
 }
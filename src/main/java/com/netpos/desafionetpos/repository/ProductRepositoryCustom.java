@@ -0,0 +1,60 @@
+package com.netpos.desafionetpos.repository;
+
+import com.netpos.desafionetpos.entity.Product;
+import com.netpos.desafionetpos.repository.projection.ProductExportRowHandler;
+import org.springframework.data.domain.Sort;
+
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Product queries which are built with the Criteria API or run directly on JDBC.
+ */
+public interface ProductRepositoryCustom {
+
+    /**
+     * Get one page of the Products of a UserAccount using keyset pagination.
+     * Instead of skipping rows with an OFFSET, the page starts right after the row whose sort key is {@code after},
+     * so the cost of a page does not depend on how deep the client has scrolled.
+     *
+     * @param userAccountId the id of the UserAccount who owns the Products.
+     * @param filter        the term to search in the name or code, or {@code null} to get every Product.
+     * @param candidateIds  the only ids which may match the filter, or {@code null} to search every Product.
+     * @param sort          the sort, which must end with a unique property so that the key identifies one row.
+     *                      Nulls sort before any value, and {@code stock.quantity} is null for a Product without a Stock.
+     * @param after         the values of each sort property on the last row of the previous page,
+     *                      or {@code null} to get the first page.
+     * @param limit         the maximum number of Products to return.
+     * @return the Products of the page.
+     * @throws IllegalArgumentException if a sort property does not exist or a value cannot be converted to its type.
+     */
+    List<Product> findPageByFilters(Long userAccountId, String filter, Collection<Long> candidateIds, Sort sort, List<String> after, int limit);
+
+    /**
+     * Read every Product of a UserAccount, ordered by id, with a forward-only JDBC cursor.
+     * Rows are fetched {@link com.netpos.desafionetpos.config.Constants#STREAM_FETCH_SIZE} at a time and handed to the
+     * handler as plain columns, so neither entities nor DTOs are created and the memory used does not depend on the
+     * size of the catalog. Must run inside a transaction, which some drivers require to keep the cursor open.
+     *
+     * @param userAccountId the id of the UserAccount who owns the Products.
+     * @param handler       the handler called for each row.
+     * @throws UncheckedIOException if the handler cannot write a row.
+     */
+    void exportByUserAccount(Long userAccountId, ProductExportRowHandler handler);
+
+    /**
+     * Change only the given fields of a Product with a single {@code UPDATE}, without loading it first.
+     * The Product is matched by id, owner and not being soft deleted in the same statement, so the number of
+     * changed rows tells whether it exists for the UserAccount.
+     *
+     * @param productId     the id of the Product.
+     * @param userAccountId the id of the UserAccount who owns the Product.
+     * @param name          the new name, or {@code null} to keep it.
+     * @param price         the new price, or {@code null} to keep it.
+     * @return {@code 1} if the Product was changed, {@code 0} if it was not found.
+     */
+    int patch(Long productId, Long userAccountId, String name, BigDecimal price);
+
+}
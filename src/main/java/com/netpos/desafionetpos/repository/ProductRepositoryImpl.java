@@ -0,0 +1,182 @@
+package com.netpos.desafionetpos.repository;
+
+import com.netpos.desafionetpos.config.Constants;
+import com.netpos.desafionetpos.entity.Product;
+import com.netpos.desafionetpos.repository.projection.ProductExportRowHandler;
+import org.hibernate.Session;
+import org.springframework.core.convert.ConversionException;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.format.support.DefaultFormattingConversionService;
+import org.springframework.data.domain.Sort;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.*;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+public class ProductRepositoryImpl implements ProductRepositoryCustom {
+
+    private static final String EXPORT_SQL = "SELECT product.id, product.code, product.name, product.price, stock.quantity FROM product " +
+            "LEFT JOIN stock ON stock.id = product.stock_id " +
+            "WHERE product.user_account_id = ? AND product.deleted_date IS NULL ORDER BY product.id";
+
+    /**
+     * Converts the key values of a cursor back to the type of their property, including the JSR-310 dates.
+     */
+    private final ConversionService conversionService = new DefaultFormattingConversionService();
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Product> findPageByFilters(Long userAccountId, String filter, Collection<Long> candidateIds, Sort sort, List<String> after, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Product> query = cb.createQuery(Product.class);
+        Root<Product> product = query.from(Product.class);
+        product.fetch("userAccount");
+        // A fetch is also a join, reused for the stock.quantity sort so Products without a Stock are kept
+        Join<?, ?> stock = (Join<?, ?>) product.fetch("stock", JoinType.LEFT);
+        Map<String, From<?, ?>> joins = Map.of("stock", stock);
+
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(cb.equal(product.get("userAccount").get("id"), userAccountId));
+        if (candidateIds != null) {
+            predicates.add(product.get("id").in(candidateIds));
+        }
+        if (filter != null) {
+            String pattern = "%" + filter + "%";
+            predicates.add(cb.or(cb.like(product.get("name"), pattern), cb.like(product.get("code"), pattern)));
+        }
+        if (after != null) {
+            predicates.add(keysetPredicate(cb, product, joins, sort.toList(), after));
+        }
+
+        query.select(product)
+                .where(predicates.toArray(new Predicate[0]))
+                .orderBy(orders(cb, product, joins, sort));
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public int patch(Long productId, Long userAccountId, String name, BigDecimal price) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<Product> update = cb.createCriteriaUpdate(Product.class);
+        Root<Product> product = update.from(Product.class);
+        if (name != null) {
+            update.set(product.<String>get("name"), name);
+        }
+        if (price != null) {
+            update.set(product.<BigDecimal>get("price"), price);
+        }
+        update.set(product.<Instant>get("lastModifiedDate"), Instant.now())
+                .set(product.<Long>get("version"), cb.sum(product.<Long>get("version"), 1L))
+                .where(cb.equal(product.get("id"), productId),
+                        cb.equal(product.get("userAccount").get("id"), userAccountId),
+                        cb.isNull(product.get("deletedDate")));
+        return entityManager.createQuery(update).executeUpdate();
+    }
+
+    /**
+     * Order by each property with its nulls sorted before any value, first when ascending and last when descending.
+     * The null ordering is stated with a {@code CASE} on each property rather than left to the database default,
+     * as {@link #keysetPredicate} relies on it.
+     */
+    private static List<Order> orders(CriteriaBuilder cb, Root<Product> root, Map<String, From<?, ?>> joins, Sort sort) {
+        List<Order> orders = new ArrayList<>();
+        for (Sort.Order order : sort) {
+            Path<?> path = path(root, joins, order.getProperty());
+            Expression<Integer> nullsLow = cb.<Integer>selectCase().when(cb.isNull(path), 0).otherwise(1);
+            orders.add(order.isAscending() ? cb.asc(nullsLow) : cb.desc(nullsLow));
+            orders.add(order.isAscending() ? cb.asc(path) : cb.desc(path));
+        }
+        return orders;
+    }
+
+    /**
+     * Build {@code (k1 > v1) OR (k1 = v1 AND k2 > v2) OR ...}, using {@code <} for the descending properties.
+     * A null key value follows the ordering of {@link #orders}, where nulls sort before any value: it is matched with
+     * {@code IS NULL}, and the rows after it are the non null ones when ascending and none when descending.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Predicate keysetPredicate(CriteriaBuilder cb, Root<Product> root, Map<String, From<?, ?>> joins, List<Sort.Order> orders, List<String> after) {
+        if (after.size() != orders.size()) {
+            throw new IllegalArgumentException("Expected " + orders.size() + " key values but got " + after.size());
+        }
+        List<Predicate> alternatives = new ArrayList<>();
+        List<Predicate> equalPrefix = new ArrayList<>();
+        for (int i = 0; i < orders.size(); i++) {
+            Sort.Order order = orders.get(i);
+            Path<Comparable> path = path(root, joins, order.getProperty());
+            String key = after.get(i);
+
+            List<Predicate> alternative = new ArrayList<>(equalPrefix);
+            if (key == null) {
+                alternative.add(order.isAscending() ? cb.isNotNull(path) : cb.disjunction());
+                equalPrefix.add(cb.isNull(path));
+            } else {
+                Comparable value = convert(key, path.getJavaType());
+                alternative.add(order.isAscending() ? cb.greaterThan(path, value)
+                        : cb.or(cb.lessThan(path, value), cb.isNull(path)));
+                equalPrefix.add(cb.equal(path, value));
+            }
+            alternatives.add(cb.and(alternative.toArray(new Predicate[0])));
+        }
+        return cb.or(alternatives.toArray(new Predicate[0]));
+    }
+
+    /**
+     * Resolve a dotted property, through the given joins for its associations rather than an implicit inner join.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> Path<T> path(Root<Product> root, Map<String, From<?, ?>> joins, String property) {
+        int dot = property.lastIndexOf('.');
+        if (dot < 0) {
+            return root.get(property);
+        }
+        From<?, ?> join = joins.get(property.substring(0, dot));
+        if (join == null) {
+            throw new IllegalArgumentException("Cannot sort Products by " + property);
+        }
+        return (Path<T>) join.get(property.substring(dot + 1));
+    }
+
+    @SuppressWarnings("rawtypes")
+    private Comparable convert(String value, Class<?> type) {
+        try {
+            return (Comparable) conversionService.convert(value, type);
+        } catch (ConversionException | ClassCastException e) {
+            throw new IllegalArgumentException("Invalid key value for type " + type.getSimpleName(), e);
+        }
+    }
+
+    @Override
+    public void exportByUserAccount(Long userAccountId, ProductExportRowHandler handler) {
+        entityManager.unwrap(Session.class).doWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(EXPORT_SQL, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                statement.setFetchSize(Constants.STREAM_FETCH_SIZE);
+                statement.setLong(1, userAccountId);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        int quantity = resultSet.getInt(5);
+                        boolean hasStock = !resultSet.wasNull();
+                        handler.handle(resultSet.getLong(1), resultSet.getString(2), resultSet.getString(3),
+                                resultSet.getBigDecimal(4), hasStock ? quantity : null);
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+}
@@ -0,0 +1,44 @@
+package com.netpos.desafionetpos.repository;
+
+import com.netpos.desafionetpos.entity.StockMovement;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface StockMovementRepository extends JpaRepository<StockMovement, Long>, StockMovementRepositoryCustom {
+
+    /**
+     * Append a movement to the ledger of the Stock owned by the Product, without loading either of them.
+     *
+     * @return {@code 1} if the movement was recorded, {@code 0} if the Product does not exist.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO stock_movement (operation, quantity, stock_id, user_account_id, created_date, last_modified_date) " +
+            "SELECT :operation, :quantity, product.stock_id, :userAccountId, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP " +
+            "FROM product WHERE product.id = :productId", nativeQuery = true)
+    int append(@Param("productId") Long productId, @Param("userAccountId") Long userAccountId,
+               @Param("operation") String operation, @Param("quantity") int quantity);
+
+    /**
+     * Get one page of the ledger of the Stock owned by the Product, newest first, walking ix_stock_movement_stock_id
+     * from the {@code before} id down.
+     *
+     * @param before   only the movements with a lower id are returned.
+     * @param pageable the page size, the page number must be {@code 0}.
+     * @return the movements.
+     */
+    @Query("SELECT movement FROM StockMovement movement, Product product " +
+            "WHERE movement.stock = product.stock " +
+            "AND product.id = :productId AND product.userAccount.id = :userAccountId " +
+            "AND movement.id < :before " +
+            "ORDER BY movement.id DESC")
+    List<StockMovement> findPageByProduct(@Param("productId") Long productId, @Param("userAccountId") Long userAccountId,
+                                          @Param("before") Long before, Pageable pageable);
+
+}
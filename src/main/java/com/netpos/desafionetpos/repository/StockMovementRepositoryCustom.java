@@ -0,0 +1,17 @@
+package com.netpos.desafionetpos.repository;
+
+import com.netpos.desafionetpos.repository.projection.StockMovementEntry;
+
+import java.util.List;
+
+public interface StockMovementRepositoryCustom {
+
+    /**
+     * Append several movements with one JDBC batch, each to the ledger of the Stock owned by its Product,
+     * without loading either of them.
+     *
+     * @param movements the movements, in the order they were applied.
+     */
+    void appendAll(List<StockMovementEntry> movements);
+
+}
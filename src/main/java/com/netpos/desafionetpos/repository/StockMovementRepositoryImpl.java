@@ -0,0 +1,41 @@
+package com.netpos.desafionetpos.repository;
+
+import com.netpos.desafionetpos.repository.projection.StockMovementEntry;
+import org.hibernate.Session;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.util.List;
+
+public class StockMovementRepositoryImpl implements StockMovementRepositoryCustom {
+
+    private static final String APPEND_MOVEMENT_SQL = "INSERT INTO stock_movement (operation, quantity, stock_id, user_account_id, created_date, last_modified_date) " +
+            "SELECT ?, ?, product.stock_id, ?, ?, ? FROM product WHERE product.id = ?";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public void appendAll(List<StockMovementEntry> movements) {
+        if (movements.isEmpty()) {
+            return;
+        }
+        entityManager.unwrap(Session.class).doWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(APPEND_MOVEMENT_SQL)) {
+                for (StockMovementEntry movement : movements) {
+                    Timestamp createdDate = Timestamp.from(movement.getCreatedDate());
+                    statement.setString(1, movement.getOperation().name());
+                    statement.setInt(2, movement.getQuantity());
+                    statement.setLong(3, movement.getUserAccountId());
+                    statement.setTimestamp(4, createdDate);
+                    statement.setTimestamp(5, createdDate);
+                    statement.setLong(6, movement.getProductId());
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+            }
+        });
+    }
+}
@@ -0,0 +1,10 @@
+package com.netpos.desafionetpos.repository;
+
+import com.netpos.desafionetpos.entity.Stock;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface StockRepository extends JpaRepository<Stock, Long>, StockRepositoryCustom {
+
+}
@@ -0,0 +1,42 @@
+package com.netpos.desafionetpos.repository;
+
+import com.netpos.desafionetpos.config.Constants;
+import com.netpos.desafionetpos.dto.AlterStockResultDTO;
+import com.netpos.desafionetpos.entity.enumeration.StockOperationStatus;
+
+/**
+ * Stock operations which are executed directly through JDBC.
+ */
+public interface StockRepositoryCustom {
+
+    /**
+     * Apply a signed delta to the Stock of a Product in a single UPDATE, which checks the ownership of the Product
+     * and returns the new quantity as a generated key.
+     * The row is only changed when the Product is live and belongs to the UserAccount, and the CHECK constraint of
+     * the quantity rejects a result outside 0 and {@link Constants#MAX_PRODUCT_STOCK}, so a rejection needs no
+     * second query either.
+     *
+     * @param productId     the id of the Product owning the Stock.
+     * @param userAccountId the id of the UserAccount who owns the Product.
+     * @param delta         the quantity to add (positive) or remove (negative).
+     * @return {@link StockOperationStatus#APPLIED} with the new quantity, {@link StockOperationStatus#NOT_FOUND}, or the
+     * bound the delta would violate: {@link StockOperationStatus#STOCK_LIMIT_EXCEEDED} or {@link StockOperationStatus#INSUFFICIENT_STOCK}.
+     */
+    AlterStockResultDTO applyDelta(Long productId, Long userAccountId, int delta);
+
+    /**
+     * Apply several signed deltas with one JDBC batch of guarded UPDATEs.
+     * Each statement follows the same rules as {@link #applyDelta(Long, Long, int)}, with the bounds checked in its
+     * WHERE clause so that a rejected delta does not stop the batch.
+     * When the driver answers a batch with {@link java.sql.Statement#SUCCESS_NO_INFO}, the deltas are applied one
+     * statement at a time instead, so each count is known.
+     * Only the Stocks this changes are reloaded in the persistence context.
+     *
+     * @param userAccountId the id of the UserAccount who owns the Products.
+     * @param productIds    the ids of the Products, in the order the deltas must be applied.
+     * @param deltas        the quantity to add (positive) or remove (negative) for each Product.
+     * @return the update count of each statement, {@code 1} if the Stock was changed, {@code 0} otherwise.
+     */
+    int[] applyDeltas(Long userAccountId, long[] productIds, int[] deltas);
+
+}
@@ -0,0 +1,157 @@
+package com.netpos.desafionetpos.repository;
+
+import com.netpos.desafionetpos.config.Constants;
+import com.netpos.desafionetpos.dto.AlterStockResultDTO;
+import com.netpos.desafionetpos.entity.Product;
+import com.netpos.desafionetpos.entity.Stock;
+import com.netpos.desafionetpos.entity.enumeration.StockOperationStatus;
+import org.hibernate.Hibernate;
+import org.hibernate.Session;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+public class StockRepositoryImpl implements StockRepositoryCustom {
+
+    private static final String APPLY_DELTA_SQL = "UPDATE stock SET quantity = quantity + ?, last_modified_date = CURRENT_TIMESTAMP, version = version + 1 " +
+            "WHERE id = (SELECT product.stock_id FROM product " +
+            "WHERE product.id = ? AND product.user_account_id = ? AND product.deleted_date IS NULL) " +
+            "AND quantity + ? BETWEEN 0 AND " + Constants.MAX_PRODUCT_STOCK;
+
+    /*
+     * Matches the Stock of the live Product of the UserAccount whatever the delta, and leaves the bounds to the CHECK
+     * constraint of stock.quantity, so that no row means the Product is not found and a violation means a bound.
+     */
+    private static final String APPLY_OWNED_DELTA_SQL = "UPDATE stock SET quantity = quantity + ?, last_modified_date = CURRENT_TIMESTAMP, version = version + 1 " +
+            "WHERE id = (SELECT product.stock_id FROM product " +
+            "WHERE product.id = ? AND product.user_account_id = ? AND product.deleted_date IS NULL)";
+
+    private static final String CHECK_CONSTRAINT_VIOLATION_SQL_STATE = "23513";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Whether the driver reports the update count of each statement of a batch, null until a batch tells
+    private volatile Boolean batchCountsReported;
+
+    @Override
+    public AlterStockResultDTO applyDelta(Long productId, Long userAccountId, int delta) {
+        // Pending changes must reach the database before the UPDATE
+        entityManager.flush();
+        AlterStockResultDTO result = entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(APPLY_OWNED_DELTA_SQL, new String[]{"quantity"})) {
+                statement.setInt(1, delta);
+                statement.setLong(2, productId);
+                statement.setLong(3, userAccountId);
+                if (statement.executeUpdate() == 0) {
+                    return new AlterStockResultDTO(productId, StockOperationStatus.NOT_FOUND);
+                }
+                try (ResultSet quantity = statement.getGeneratedKeys()) {
+                    quantity.next();
+                    return new AlterStockResultDTO(productId, StockOperationStatus.APPLIED, quantity.getInt(1));
+                }
+            } catch (SQLException e) {
+                if (!CHECK_CONSTRAINT_VIOLATION_SQL_STATE.equals(e.getSQLState())) {
+                    throw e;
+                }
+                return new AlterStockResultDTO(productId, delta > 0
+                        ? StockOperationStatus.STOCK_LIMIT_EXCEEDED : StockOperationStatus.INSUFFICIENT_STOCK);
+            }
+        });
+        if (result.getStatus() == StockOperationStatus.APPLIED) {
+            refreshManagedStocks(productId);
+        }
+        return result;
+    }
+
+    @Override
+    public int[] applyDeltas(Long userAccountId, long[] productIds, int[] deltas) {
+        // Pending changes must reach the database before the batch
+        entityManager.flush();
+        int[] updateCounts = entityManager.unwrap(Session.class).doReturningWork(connection ->
+                executeDeltas(connection, userAccountId, productIds, deltas));
+        refreshManagedStocks(IntStream.range(0, productIds.length)
+                .filter(i -> updateCounts[i] == 1)
+                .mapToLong(i -> productIds[i])
+                .toArray());
+        return updateCounts;
+    }
+
+    /*
+     * A delta is applied when its statement counts one row, so a driver answering a batch with SUCCESS_NO_INFO gets
+     * the deltas one statement at a time instead. Whether it does is learnt from the first batch of several
+     * statements, the only one run under a savepoint so it can be undone and replayed statement by statement.
+     */
+    int[] executeDeltas(Connection connection, Long userAccountId, long[] productIds, int[] deltas) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(APPLY_DELTA_SQL)) {
+            Boolean countsReported = batchCountsReported;
+            if (Boolean.FALSE.equals(countsReported)) {
+                return executeOneByOne(statement, userAccountId, productIds, deltas);
+            }
+            Savepoint savepoint = countsReported == null ? connection.setSavepoint() : null;
+            for (int i = 0; i < productIds.length; i++) {
+                bindDelta(statement, userAccountId, productIds[i], deltas[i]);
+                statement.addBatch();
+            }
+            int[] counts = statement.executeBatch();
+            boolean reported = Arrays.stream(counts).noneMatch(count -> count == Statement.SUCCESS_NO_INFO);
+            if (!reported || productIds.length > 1) {
+                batchCountsReported = reported;
+            }
+            if (reported) {
+                if (savepoint != null) {
+                    connection.releaseSavepoint(savepoint);
+                }
+                return counts;
+            }
+            if (savepoint == null) {
+                throw new IllegalStateException("The JDBC driver stopped reporting the update counts of a batch");
+            }
+            connection.rollback(savepoint);
+            return executeOneByOne(statement, userAccountId, productIds, deltas);
+        }
+    }
+
+    private int[] executeOneByOne(PreparedStatement statement, Long userAccountId, long[] productIds, int[] deltas) throws SQLException {
+        int[] counts = new int[productIds.length];
+        for (int i = 0; i < productIds.length; i++) {
+            bindDelta(statement, userAccountId, productIds[i], deltas[i]);
+            counts[i] = statement.executeUpdate();
+        }
+        return counts;
+    }
+
+    private void bindDelta(PreparedStatement statement, Long userAccountId, long productId, int delta) throws SQLException {
+        statement.setInt(1, delta);
+        statement.setLong(2, productId);
+        statement.setLong(3, userAccountId);
+        statement.setInt(4, delta);
+    }
+
+    /*
+     * The statements bypass the persistence context, so the Stock it manages for one of the Products, if any,
+     * is reloaded instead of clearing the whole context.
+     */
+    private void refreshManagedStocks(long... productIds) {
+        SessionImplementor session = entityManager.unwrap(SessionImplementor.class);
+        EntityPersister productPersister = session.getFactory().getMetamodel().entityPersister(Product.class);
+        LongStream.of(productIds).distinct().forEach(productId -> {
+            Object product = session.getPersistenceContext().getEntity(session.generateEntityKey(productId, productPersister));
+            Stock stock = product == null ? null : ((Product) product).getStock();
+            if (stock != null && Hibernate.isInitialized(stock)) {
+                entityManager.refresh(stock);
+            }
+        });
+    }
+}
@@ -0,0 +1,22 @@
+package com.netpos.desafionetpos.repository.projection;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+
+/**
+ * Receives the columns of each exported Product as they are read from the cursor, without building an object per row.
+ */
+@FunctionalInterface
+public interface ProductExportRowHandler {
+
+    /**
+     * @param id       the id of the Product.
+     * @param code     the code of the Product.
+     * @param name     the name of the Product.
+     * @param price    the price of the Product.
+     * @param quantity the quantity in Stock, or {@code null} if the Product has no Stock.
+     * @throws IOException if the row cannot be written.
+     */
+    void handle(long id, String code, String name, BigDecimal price, Integer quantity) throws IOException;
+
+}
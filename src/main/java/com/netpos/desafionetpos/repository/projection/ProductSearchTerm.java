@@ -0,0 +1,14 @@
+package com.netpos.desafionetpos.repository.projection;
+
+/**
+ * Projection with the searchable fields of a Product.
+ */
+public interface ProductSearchTerm {
+
+    Long getId();
+
+    String getName();
+
+    String getCode();
+
+}
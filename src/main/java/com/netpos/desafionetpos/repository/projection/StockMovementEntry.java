@@ -0,0 +1,49 @@
+package com.netpos.desafionetpos.repository.projection;
+
+import com.netpos.desafionetpos.entity.enumeration.Operation;
+
+import java.time.Instant;
+
+/**
+ * A movement to append to the ledger of the Stock owned by a Product, known by the id of the Product alone.
+ */
+public final class StockMovementEntry {
+
+    private final long productId;
+
+    private final Long userAccountId;
+
+    private final Operation operation;
+
+    private final int quantity;
+
+    private final Instant createdDate;
+
+    public StockMovementEntry(long productId, Long userAccountId, Operation operation, int quantity, Instant createdDate) {
+        this.productId = productId;
+        this.userAccountId = userAccountId;
+        this.operation = operation;
+        this.quantity = quantity;
+        this.createdDate = createdDate;
+    }
+
+    public long getProductId() {
+        return productId;
+    }
+
+    public Long getUserAccountId() {
+        return userAccountId;
+    }
+
+    public Operation getOperation() {
+        return operation;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public Instant getCreatedDate() {
+        return createdDate;
+    }
+}
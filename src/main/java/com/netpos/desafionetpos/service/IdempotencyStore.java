@@ -0,0 +1,179 @@
+package com.netpos.desafionetpos.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Keeps the first response to each {@code Idempotency-Key}, so a client retrying a request after a timeout gets the
+ * same answer instead of applying the request again.
+ * <p>
+ * The keys live in a Caffeine map, bounded by {@code maximumSize} completed entries and expired {@code timeToLive}
+ * after the first request. The map is a striped {@link java.util.concurrent.ConcurrentHashMap}, so claiming or
+ * looking up a key is a single O(1) {@code putIfAbsent} which only contends with requests hashed to the same bin.
+ * <p>
+ * A key is claimed before the request runs, so a duplicate arriving while the first request is still running is
+ * rejected with {@code 409 (Conflict)}. A claim weighs nothing, so the size bound never evicts the key of a running
+ * request, and the claim is replaced by the completed entry once the request ends. Responses and client errors
+ * ({@code 4xx}) are kept and replayed, any other failure releases the key so that the request can be retried.
+ * <p>
+ * Each entry keeps a SHA-256 digest of the request body, and the key sent again with a different body is rejected
+ * with {@code 422 (Unprocessable Entity)} instead of being answered with the response to another request.
+ */
+@Component
+public class IdempotencyStore {
+
+    public static final String IDEMPOTENCY_REQUESTS = "app.idempotency.requests";
+
+    public static final int MAX_KEY_LENGTH = 255;
+
+    private final Logger log = LoggerFactory.getLogger(IdempotencyStore.class);
+
+    private final ConcurrentMap<String, Entry> entries;
+
+    private final ObjectMapper objectMapper;
+
+    private final Counter executedCounter;
+
+    private final Counter replayedCounter;
+
+    private final Counter inProgressCounter;
+
+    public IdempotencyStore(MeterRegistry meterRegistry, ObjectMapper objectMapper,
+                            @Value("${application.idempotency.maximum-size}") long maximumSize,
+                            @Value("${application.idempotency.time-to-live}") Duration timeToLive) {
+        this.entries = Caffeine.newBuilder()
+                .maximumWeight(maximumSize)
+                .<String, Entry>weigher((key, entry) -> entry.isCompleted() ? 1 : 0)
+                .expireAfterWrite(timeToLive)
+                .<String, Entry>build()
+                .asMap();
+        this.objectMapper = objectMapper;
+        this.executedCounter = requestsCounter(meterRegistry, "executed");
+        this.replayedCounter = requestsCounter(meterRegistry, "replayed");
+        this.inProgressCounter = requestsCounter(meterRegistry, "in_progress");
+    }
+
+    private static Counter requestsCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder(IDEMPOTENCY_REQUESTS)
+                .description("Requests with an Idempotency-Key by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Run the request once per key, or answer it with the response kept for the key.
+     *
+     * @param userAccountId  the id of the UserAccount sending the request, keys of different UserAccounts never collide.
+     * @param operation      the method and path of the request, the same key may be used on different operations.
+     * @param idempotencyKey the key chosen by the client, or {@code null} to always run the request.
+     * @param body           the body of the request, compared with the body of the first request with the key.
+     * @param request        the request.
+     * @return the response to the first request with the key.
+     * @throws ResponseStatusException with status {@code 409 (Conflict)} if the first request with the key is still running,
+     *                                 or {@code 422 (Unprocessable Entity)} if it had another body.
+     */
+    public <T, E extends Exception> ResponseEntity<T> execute(Long userAccountId, String operation, String idempotencyKey,
+                                                              Object body, IdempotentRequest<T, E> request) throws E {
+        if (idempotencyKey == null) {
+            return request.execute();
+        }
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "A Idempotency-Key deve ter entre 1 e " + MAX_KEY_LENGTH + " caracteres");
+        }
+        String key = userAccountId + " " + operation + " " + idempotencyKey;
+        Entry claim = new Entry(digest(body), null, null);
+        Entry firstEntry = entries.putIfAbsent(key, claim);
+        if (firstEntry != null) {
+            return replay(firstEntry, claim.bodyDigest, idempotencyKey);
+        }
+
+        executedCounter.increment();
+        ResponseEntity<T> response;
+        try {
+            response = request.execute();
+        } catch (ResponseStatusException e) {
+            if (e.getStatus().is4xxClientError()) {
+                entries.replace(key, claim, new Entry(claim.bodyDigest, null, e));
+            } else {
+                entries.remove(key, claim);
+            }
+            throw e;
+        } catch (Exception | Error e) {
+            entries.remove(key, claim);
+            throw e;
+        }
+        entries.replace(key, claim, new Entry(claim.bodyDigest, response, null));
+        return response;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> ResponseEntity<T> replay(Entry firstEntry, byte[] bodyDigest, String idempotencyKey) {
+        if (!MessageDigest.isEqual(firstEntry.bodyDigest, bodyDigest)) {
+            throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY, "A Idempotency-Key " + idempotencyKey + " já foi usada com outra requisição");
+        }
+        if (!firstEntry.isCompleted()) {
+            inProgressCounter.increment();
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Requisição com a Idempotency-Key " + idempotencyKey + " ainda em processamento");
+        }
+        log.debug("Replay the response to Idempotency-Key: {}", idempotencyKey);
+        replayedCounter.increment();
+        if (firstEntry.error != null) {
+            throw firstEntry.error;
+        }
+        return (ResponseEntity<T>) firstEntry.response;
+    }
+
+    private byte[] digest(Object body) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(body));
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Could not digest the request body", e);
+        }
+    }
+
+    /**
+     * A request which may be run through the store.
+     */
+    @FunctionalInterface
+    public interface IdempotentRequest<T, E extends Exception> {
+
+        ResponseEntity<T> execute() throws E;
+    }
+
+    /**
+     * The claim of a running request, without response nor error, or the outcome of a completed one.
+     */
+    private static class Entry {
+
+        private final byte[] bodyDigest;
+
+        private final ResponseEntity<?> response;
+
+        private final ResponseStatusException error;
+
+        private Entry(byte[] bodyDigest, ResponseEntity<?> response, ResponseStatusException error) {
+            this.bodyDigest = bodyDigest;
+            this.response = response;
+            this.error = error;
+        }
+
+        private boolean isCompleted() {
+            return response != null || error != null;
+        }
+    }
+}
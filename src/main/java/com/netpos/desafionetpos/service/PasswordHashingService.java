@@ -0,0 +1,60 @@
+package com.netpos.desafionetpos.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.*;
+
+/**
+ * Hashes passwords on a dedicated pool with one thread per CPU.
+ * <p>
+ * BCrypt is CPU bound, so running it on the request threads lets an onboarding burst take every core away from the
+ * other endpoints. Here at most one hash per core runs at a time, a bounded number of requests wait for their turn,
+ * and the others are rejected with a {@link RejectedExecutionException}, translated into {@code 503 (Service Unavailable)}.
+ * The caller is given a {@link CompletableFuture}, so no request thread waits for the hash.
+ */
+@Service
+public class PasswordHashingService {
+
+    private final Logger log = LoggerFactory.getLogger(PasswordHashingService.class);
+
+    private final PasswordEncoder passwordEncoder;
+
+    private final ThreadPoolExecutor executor;
+
+    public PasswordHashingService(PasswordEncoder passwordEncoder,
+                                  @Value("${application.security.password-hashing.queue-capacity}") int queueCapacity,
+                                  MeterRegistry meterRegistry) {
+        this.passwordEncoder = passwordEncoder;
+        int threads = Runtime.getRuntime().availableProcessors();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("password-hashing-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        new ExecutorServiceMetrics(executor, "password.hashing", Tags.empty()).bindTo(meterRegistry);
+    }
+
+    /**
+     * Encode a raw password on the hashing pool.
+     *
+     * @param rawPassword the password to encode.
+     * @return the encoded password, completed on a thread of the hashing pool.
+     * @throws RejectedExecutionException if the pool and its queue are full.
+     */
+    public CompletableFuture<String> encode(CharSequence rawPassword) {
+        return CompletableFuture.supplyAsync(() -> passwordEncoder.encode(rawPassword), executor);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        log.debug("Shutting down the password hashing pool");
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,175 @@
+package com.netpos.desafionetpos.service;
+
+import com.netpos.desafionetpos.dto.ProductArchiveDTO;
+import com.netpos.desafionetpos.mapper.ProductArchiveMapper;
+import com.netpos.desafionetpos.repository.ProductArchiveRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.IntSupplier;
+
+/**
+ * Moves the Products soft deleted for longer than {@code application.archive.min-age} out of the hot tables.
+ * <p>
+ * Each batch of at most {@code batch-size} Products is archived in its own short transaction, and the archiver pauses
+ * {@code batch-delay} between two batches, so the foreground requests never wait long for the rows or the connection
+ * it holds. A run stops after {@code max-batches} batches and the next one continues with the remaining Products.
+ * <p>
+ * The StockMovements created more than {@code application.archive.movement-retention} ago are moved to their archive
+ * the same way, so the ledger, which gains a row with every stock operation, stays bounded by the retention.
+ */
+@Service
+public class ProductArchiveService {
+
+    public static final String ARCHIVED_PRODUCTS = "app.products.archived";
+
+    public static final String ARCHIVED_STOCK_MOVEMENTS = "app.stock.movements.archived";
+
+    private final Logger log = LoggerFactory.getLogger(ProductArchiveService.class);
+
+    private final ProductArchiveRepository productArchiveRepository;
+
+    private final ProductArchiveMapper productArchiveMapper;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final Counter archivedProducts;
+
+    private final Counter archivedMovements;
+
+    private final Duration minAge;
+
+    private final Duration movementRetention;
+
+    private final int batchSize;
+
+    private final Duration batchDelay;
+
+    private final int maxBatches;
+
+    public ProductArchiveService(ProductArchiveRepository productArchiveRepository, ProductArchiveMapper productArchiveMapper,
+                                 TransactionTemplate transactionTemplate, MeterRegistry meterRegistry,
+                                 @Value("${application.archive.min-age}") Duration minAge,
+                                 @Value("${application.archive.movement-retention}") Duration movementRetention,
+                                 @Value("${application.archive.batch-size}") int batchSize,
+                                 @Value("${application.archive.batch-delay}") Duration batchDelay,
+                                 @Value("${application.archive.max-batches}") int maxBatches) {
+        this.productArchiveRepository = productArchiveRepository;
+        this.productArchiveMapper = productArchiveMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.archivedProducts = Counter.builder(ARCHIVED_PRODUCTS)
+                .description("Soft deleted Products moved to the archive")
+                .register(meterRegistry);
+        this.archivedMovements = Counter.builder(ARCHIVED_STOCK_MOVEMENTS)
+                .description("StockMovements older than the retention moved to the archive")
+                .register(meterRegistry);
+        this.minAge = minAge;
+        this.movementRetention = movementRetention;
+        this.batchSize = batchSize;
+        this.batchDelay = batchDelay;
+        this.maxBatches = maxBatches;
+    }
+
+    /**
+     * Archive the Products soft deleted for longer than the minimum age, run on the {@code application.archive.cron} schedule.
+     *
+     * @return the number of Products archived.
+     */
+    @Scheduled(cron = "${application.archive.cron}")
+    public int archive() {
+        return archiveDeletedBefore(Instant.now().minus(minAge));
+    }
+
+    /**
+     * Archive the Products soft deleted before {@code cutoff}, one batch per transaction.
+     *
+     * @param cutoff the Products deleted at or after this instant are kept.
+     * @return the number of Products archived.
+     */
+    public int archiveDeletedBefore(Instant cutoff) {
+        int archived = archiveInBatches(() -> productArchiveRepository.archiveDeletedBefore(cutoff, batchSize), archivedProducts);
+        if (archived > 0) {
+            log.info("Archived {} Products deleted before {}", archived, cutoff);
+        }
+        return archived;
+    }
+
+    /**
+     * Archive the StockMovements older than the retention, run on the {@code application.archive.cron} schedule.
+     *
+     * @return the number of StockMovements archived.
+     */
+    @Scheduled(cron = "${application.archive.cron}")
+    public int archiveMovements() {
+        return archiveMovementsCreatedBefore(Instant.now().minus(movementRetention));
+    }
+
+    /**
+     * Archive the StockMovements created before {@code cutoff}, one batch per transaction.
+     *
+     * @param cutoff the StockMovements created at or after this instant are kept.
+     * @return the number of StockMovements archived.
+     */
+    public int archiveMovementsCreatedBefore(Instant cutoff) {
+        int archived = archiveInBatches(() -> productArchiveRepository.archiveMovementsCreatedBefore(cutoff, batchSize), archivedMovements);
+        if (archived > 0) {
+            log.info("Archived {} StockMovements created before {}", archived, cutoff);
+        }
+        return archived;
+    }
+
+    private int archiveInBatches(IntSupplier archiveBatch, Counter counter) {
+        int archived = 0;
+        for (int batch = 0; batch < maxBatches; batch++) {
+            Integer count = transactionTemplate.execute(status -> archiveBatch.getAsInt());
+            archived += count;
+            counter.increment(count);
+            if (count < batchSize || !pause()) {
+                break;
+            }
+        }
+        return archived;
+    }
+
+    private boolean pause() {
+        try {
+            Thread.sleep(batchDelay.toMillis());
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.debug("Interrupted between two archive batches, the remaining rows are left for the next run");
+            return false;
+        }
+    }
+
+    /**
+     * Get one page of the archived Products, in id order.
+     *
+     * @param userAccountId the id of the UserAccount who owned the Products, or {@code null} to read every archived Product.
+     * @param after         the id of the last Product of the previous page, or {@code null} for the first page.
+     * @param limit         the maximum number of Products to return.
+     * @return the archived Products.
+     */
+    public List<ProductArchiveDTO> findAll(Long userAccountId, Long after, int limit) {
+        long afterId = after == null ? 0L : after;
+        PageRequest page = PageRequest.of(0, limit);
+        return productArchiveMapper.toDto(userAccountId == null
+                ? productArchiveRepository.findByIdGreaterThanOrderById(afterId, page)
+                : productArchiveRepository.findByUserAccountIdAndIdGreaterThanOrderById(userAccountId, afterId, page));
+    }
+
+    public Optional<ProductArchiveDTO> findOne(Long id) {
+        return productArchiveRepository.findById(id).map(productArchiveMapper::toDto);
+    }
+}
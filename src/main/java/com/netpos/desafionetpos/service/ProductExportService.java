@@ -0,0 +1,142 @@
+package com.netpos.desafionetpos.service;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.netpos.desafionetpos.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Service to export the catalog of a UserAccount, with the quantity in Stock of each Product, as CSV or NDJSON.
+ * <p>
+ * The rows are read from a JDBC cursor and written to the output as they arrive, through a single row buffer
+ * which is reused for every row, so exporting a catalog of any size runs in constant memory.
+ */
+@Service
+@Transactional(readOnly = true)
+public class ProductExportService {
+
+    private static final String CSV_HEADER = "id,code,name,price,quantity\n";
+
+    private final Logger log = LoggerFactory.getLogger(ProductExportService.class);
+
+    private final ProductRepository productRepository;
+
+    private final ObjectMapper objectMapper;
+
+    public ProductExportService(ProductRepository productRepository, ObjectMapper objectMapper) {
+        this.productRepository = productRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Write the Products of a UserAccount as CSV, starting with a header naming the columns,
+     * in the same format read by {@link ProductImportService}.
+     *
+     * @param userAccountId the id of the UserAccount who owns the Products.
+     * @param outputStream  the stream to write to, which is flushed but not closed.
+     * @throws IOException if the output cannot be written.
+     */
+    public void exportCsv(Long userAccountId, OutputStream outputStream) throws IOException {
+        log.debug("Request to export the catalog of the UserAccount: {} as CSV", userAccountId);
+        Writer writer = new OutputStreamWriter(outputStream, StandardCharsets.UTF_8);
+        StringBuilder row = new StringBuilder(256);
+        char[] chars = new char[256];
+        writer.write(CSV_HEADER);
+        try {
+            productRepository.exportByUserAccount(userAccountId, (id, code, name, price, quantity) -> {
+                row.setLength(0);
+                row.append(id).append(',');
+                appendCsvField(row, code);
+                row.append(',');
+                appendCsvField(row, name);
+                row.append(',');
+                if (price != null) {
+                    row.append(price.toPlainString());
+                }
+                row.append(',');
+                if (quantity != null) {
+                    row.append(quantity.intValue());
+                }
+                row.append('\n');
+                // Copied through a reused array because Writer.append(CharSequence) would create a String per row
+                for (int start = 0; start < row.length(); start += chars.length) {
+                    int end = Math.min(start + chars.length, row.length());
+                    row.getChars(start, end, chars, 0);
+                    writer.write(chars, 0, end - start);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+    }
+
+    /**
+     * Write the Products of a UserAccount as NDJSON, one Product per line, in the same format as {@code GET /products}.
+     *
+     * @param userAccountId the id of the UserAccount who owns the Products.
+     * @param outputStream  the stream to write to, which is flushed but not closed.
+     * @throws IOException if the output cannot be written.
+     */
+    public void exportNdjson(Long userAccountId, OutputStream outputStream) throws IOException {
+        log.debug("Request to export the catalog of the UserAccount: {} as NDJSON", userAccountId);
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream, JsonEncoding.UTF8)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+            productRepository.exportByUserAccount(userAccountId, (id, code, name, price, quantity) -> {
+                generator.writeStartObject();
+                generator.writeNumberField("id", id);
+                generator.writeStringField("name", name);
+                generator.writeStringField("code", code);
+                generator.writeNumberField("price", price);
+                if (quantity != null) {
+                    generator.writeObjectFieldStart("stock");
+                    generator.writeNumberField("quantity", quantity.intValue());
+                    generator.writeEndObject();
+                }
+                generator.writeEndObject();
+                generator.writeRaw('\n');
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Append a CSV field, quoted when it contains a comma, a quote or a line break.
+     */
+    private static void appendCsvField(StringBuilder row, String value) {
+        if (value == null) {
+            return;
+        }
+        boolean quoted = false;
+        for (int i = 0; i < value.length() && !quoted; i++) {
+            char c = value.charAt(i);
+            quoted = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quoted) {
+            row.append(value);
+            return;
+        }
+        row.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                row.append('"');
+            }
+            row.append(c);
+        }
+        row.append('"');
+    }
+}
@@ -0,0 +1,392 @@
+package com.netpos.desafionetpos.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.netpos.desafionetpos.config.Constants;
+import com.netpos.desafionetpos.dto.ProductDTO;
+import com.netpos.desafionetpos.dto.ProductImportRejectionDTO;
+import com.netpos.desafionetpos.dto.ProductImportResultDTO;
+import com.netpos.desafionetpos.dto.StockDTO;
+import com.netpos.desafionetpos.entity.Product;
+import com.netpos.desafionetpos.entity.UserAccount;
+import com.netpos.desafionetpos.mapper.ProductMapper;
+import com.netpos.desafionetpos.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.persistence.EntityManager;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Service to import a catalog of Products from a CSV or NDJSON stream, one Product per line.
+ * <p>
+ * The lines are read and validated in chunks of {@link Constants#IMPORT_CHUNK_SIZE}. The codes of a chunk are checked
+ * against the UserAccount with a single query, the valid Products are inserted in JDBC batches and the persistence
+ * context is cleared before the next chunk, so the memory used does not grow with the size of the file.
+ * Invalid lines are skipped and reported with their line number, the first {@link Constants#MAX_IMPORT_REJECTIONS}
+ * of them by line along with the count of every rejected line.
+ * <p>
+ * Each chunk is saved in its own transaction, so a large file neither holds its locks until the end nor is lost
+ * as a whole when one chunk fails. A chunk whose insert violates the unique code, saved by another request after
+ * the check, is rolled back and all its lines are reported as rejected. Any other violation fails the import.
+ * <p>
+ * A quoted CSV field may span several lines, as written by the export for a name holding a line break.
+ */
+@Service
+public class ProductImportService {
+
+    public enum Format {
+        CSV, NDJSON
+    }
+
+    private static final List<String> CSV_COLUMNS = List.of("code", "name", "price", "quantity");
+
+    private final Logger log = LoggerFactory.getLogger(ProductImportService.class);
+
+    private final ProductRepository productRepository;
+
+    private final ProductMapper productMapper;
+
+    private final ProductSearchIndex productSearchIndex;
+
+    private final EntityManager entityManager;
+
+    private final ObjectMapper objectMapper;
+
+    private final Validator validator;
+
+    private final TransactionTemplate transactionTemplate;
+
+    public ProductImportService(ProductRepository productRepository, ProductMapper productMapper, ProductSearchIndex productSearchIndex,
+                                EntityManager entityManager, ObjectMapper objectMapper, Validator validator,
+                                TransactionTemplate transactionTemplate) {
+        this.productRepository = productRepository;
+        this.productMapper = productMapper;
+        this.productSearchIndex = productSearchIndex;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    /**
+     * Import the Products read from the reader into the catalog of a UserAccount.
+     *
+     * @param userAccountId the id of the UserAccount who owns the Products.
+     * @param reader        the CSV file, starting with a header naming its columns, or the NDJSON file.
+     * @param format        the format of the file.
+     * @return the number of Products imported, the first lines rejected and the number of lines rejected.
+     * @throws IOException if the file cannot be read.
+     */
+    public ProductImportResultDTO importProducts(Long userAccountId, Reader reader, Format format) throws IOException {
+        log.debug("Request to import a {} catalog for the UserAccount: {}", format, userAccountId);
+        BufferedReader lines = new BufferedReader(reader);
+        ProductImportResultDTO result = new ProductImportResultDTO();
+        Rejections rejections = new Rejections();
+        CsvReader csv = null;
+        int[] columns = null;
+        if (format == Format.CSV) {
+            csv = new CsvReader(lines);
+            columns = readCsvHeader(csv.nextRecord() ? csv.readRecord() : null);
+        }
+
+        List<ImportLine> chunk = new ArrayList<>(Constants.IMPORT_CHUNK_SIZE);
+        long lineNumber = 0;
+        while (true) {
+            String line = null;
+            if (csv != null) {
+                if (!csv.nextRecord()) {
+                    break;
+                }
+                lineNumber = csv.getRecordLineNumber();
+            } else {
+                line = lines.readLine();
+                if (line == null) {
+                    break;
+                }
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+            }
+            try {
+                ProductDTO productDTO = csv != null ? parseCsvRecord(csv.readRecord(), columns) : objectMapper.readValue(line, ProductDTO.class);
+                String violations = validate(productDTO);
+                if (violations != null) {
+                    rejections.add(lineNumber, violations);
+                    continue;
+                }
+                chunk.add(new ImportLine(lineNumber, productDTO));
+            } catch (JsonProcessingException e) {
+                rejections.add(lineNumber, "Linha inválida: " + e.getOriginalMessage());
+                continue;
+            } catch (IllegalArgumentException e) {
+                rejections.add(lineNumber, "Linha inválida: " + e.getMessage());
+                continue;
+            }
+            if (chunk.size() == Constants.IMPORT_CHUNK_SIZE) {
+                saveChunk(userAccountId, chunk, result, rejections);
+                chunk.clear();
+            }
+        }
+        saveChunk(userAccountId, chunk, result, rejections);
+
+        result.setRejected(rejections.getFirst());
+        result.setRejectedCount(rejections.getCount());
+        return result;
+    }
+
+    private void saveChunk(Long userAccountId, List<ImportLine> chunk, ProductImportResultDTO result, Rejections rejections) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        ProductImportResultDTO chunkResult = new ProductImportResultDTO();
+        try {
+            transactionTemplate.executeWithoutResult(status -> insertChunk(userAccountId, chunk, chunkResult));
+        } catch (DataIntegrityViolationException e) {
+            if (!ProductService.isViolationOf(e, Product.CODE_UNIQUE_CONSTRAINT)) {
+                throw e;
+            }
+            log.debug("Rolled back a chunk of {} lines of the import for the UserAccount: {}", chunk.size(), userAccountId, e);
+            for (ImportLine importLine : chunk) {
+                rejections.add(importLine.lineNumber, "Lote não importado: um código conflitou com um produto salvo ao mesmo tempo");
+            }
+            return;
+        }
+        result.setImported(result.getImported() + chunkResult.getImported());
+        chunkResult.getRejected().forEach(rejection -> rejections.add(rejection.getLine(), rejection.getReason()));
+    }
+
+    private void insertChunk(Long userAccountId, List<ImportLine> chunk, ProductImportResultDTO result) {
+        Set<String> codes = chunk.stream().map(importLine -> importLine.productDTO.getCode()).collect(Collectors.toSet());
+        Set<String> existingCodes = productRepository.findCodesByUserAccount(codes, userAccountId);
+        Set<String> chunkCodes = new HashSet<>();
+        UserAccount userAccount = entityManager.getReference(UserAccount.class, userAccountId);
+        for (ImportLine importLine : chunk) {
+            String code = importLine.productDTO.getCode();
+            if (existingCodes.contains(code) || !chunkCodes.add(code)) {
+                reject(result, importLine.lineNumber, "Já existe um produto com o código: " + code);
+                continue;
+            }
+            Product product = productMapper.toEntity(importLine.productDTO);
+            product.setUserAccount(userAccount);
+            entityManager.persist(product);
+            result.setImported(result.getImported() + 1);
+        }
+        // Flushed through the repository, which translates a constraint violation into a DataIntegrityViolationException
+        productRepository.flush();
+        entityManager.clear();
+        // Rebuilt from the database on the next search once the chunk commits, instead of indexing every imported Product
+        productSearchIndex.invalidate(userAccountId);
+    }
+
+    private static void reject(ProductImportResultDTO result, long lineNumber, String reason) {
+        result.getRejected().add(new ProductImportRejectionDTO(lineNumber, reason));
+    }
+
+    private String validate(ProductDTO productDTO) {
+        if (productDTO.getId() != null) {
+            return "Um novo produto não pode ter um ID";
+        }
+        if (productDTO.getStock() == null) {
+            return "stock.quantity: must not be null";
+        }
+        Stream<String> productViolations = validator.validate(productDTO).stream()
+                .map(ProductImportService::describe);
+        Stream<String> stockViolations = validator.validate(productDTO.getStock()).stream()
+                .map(violation -> "stock." + describe(violation));
+        String violations = Stream.concat(productViolations, stockViolations).sorted().collect(Collectors.joining("; "));
+        return violations.isEmpty() ? null : violations;
+    }
+
+    private static String describe(ConstraintViolation<?> violation) {
+        return violation.getPropertyPath() + ": " + violation.getMessage();
+    }
+
+    /**
+     * Find the position of each expected column in the CSV header.
+     */
+    private static int[] readCsvHeader(List<String> header) {
+        List<String> names = header == null ? List.of() : header.stream()
+                .map(name -> name.trim().toLowerCase(Locale.ROOT))
+                .collect(Collectors.toList());
+        int[] columns = new int[CSV_COLUMNS.size()];
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = names.indexOf(CSV_COLUMNS.get(i));
+            if (columns[i] < 0) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "O cabeçalho do CSV deve ter as colunas: " + String.join(",", CSV_COLUMNS));
+            }
+        }
+        return columns;
+    }
+
+    private static ProductDTO parseCsvRecord(List<String> fields, int[] columns) {
+        for (int column : columns) {
+            if (column >= fields.size()) {
+                throw new IllegalArgumentException("esperadas " + CSV_COLUMNS.size() + " colunas");
+            }
+        }
+        ProductDTO productDTO = new ProductDTO();
+        productDTO.setCode(fields.get(columns[0]));
+        productDTO.setName(fields.get(columns[1]));
+        String price = fields.get(columns[2]).trim();
+        productDTO.setPrice(price.isEmpty() ? null : new BigDecimal(price));
+        String quantity = fields.get(columns[3]).trim();
+        productDTO.setStock(new StockDTO().quantity(quantity.isEmpty() ? null : Integer.valueOf(quantity)));
+        return productDTO;
+    }
+
+    /**
+     * Reads the records of a CSV file, split on commas, accepting fields quoted with {@code "}, quotes escaped as
+     * {@code ""} and line breaks inside a quoted field. Blank lines between the records are skipped.
+     */
+    private static class CsvReader {
+
+        private final BufferedReader lines;
+
+        private long lineNumber;
+
+        private long recordLineNumber;
+
+        private List<String> record;
+
+        private String error;
+
+        CsvReader(BufferedReader lines) {
+            this.lines = lines;
+        }
+
+        /**
+         * Read the next record.
+         *
+         * @return {@code false} at the end of the file.
+         */
+        boolean nextRecord() throws IOException {
+            String line;
+            do {
+                line = lines.readLine();
+                if (line == null) {
+                    return false;
+                }
+                lineNumber++;
+            } while (line.isBlank());
+
+            recordLineNumber = lineNumber;
+            record = new ArrayList<>();
+            error = null;
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            while (true) {
+                for (int i = 0; i < line.length(); i++) {
+                    char c = line.charAt(i);
+                    if (quoted) {
+                        if (c != '"') {
+                            field.append(c);
+                        } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                            field.append('"');
+                            i++;
+                        } else {
+                            quoted = false;
+                        }
+                    } else if (c == '"') {
+                        quoted = true;
+                    } else if (c == ',') {
+                        record.add(field.toString());
+                        field.setLength(0);
+                    } else {
+                        field.append(c);
+                    }
+                }
+                if (!quoted) {
+                    break;
+                }
+                line = lines.readLine();
+                if (line == null) {
+                    error = "aspas não fechadas";
+                    break;
+                }
+                lineNumber++;
+                field.append('\n');
+            }
+            record.add(field.toString());
+            return true;
+        }
+
+        /**
+         * @return the fields of the current record.
+         * @throws IllegalArgumentException if the record ends inside a quoted field.
+         */
+        List<String> readRecord() {
+            if (error != null) {
+                throw new IllegalArgumentException(error);
+            }
+            return record;
+        }
+
+        /**
+         * @return the line on which the current record starts.
+         */
+        long getRecordLineNumber() {
+            return recordLineNumber;
+        }
+    }
+
+    /**
+     * Counts the rejected lines and keeps the first {@link Constants#MAX_IMPORT_REJECTIONS} of them by line number.
+     * Duplicated codes are only found when their chunk is saved, after later lines were already rejected, so the
+     * kept rejections are a heap whose last line is dropped first.
+     */
+    private static class Rejections {
+
+        private final PriorityQueue<ProductImportRejectionDTO> first = new PriorityQueue<>(
+                Comparator.comparingLong(ProductImportRejectionDTO::getLine).reversed());
+
+        private long count;
+
+        void add(long lineNumber, String reason) {
+            count++;
+            if (first.size() == Constants.MAX_IMPORT_REJECTIONS && first.peek().getLine() < lineNumber) {
+                return;
+            }
+            first.add(new ProductImportRejectionDTO(lineNumber, reason));
+            if (first.size() > Constants.MAX_IMPORT_REJECTIONS) {
+                first.poll();
+            }
+        }
+
+        List<ProductImportRejectionDTO> getFirst() {
+            List<ProductImportRejectionDTO> rejected = new ArrayList<>(first);
+            rejected.sort(Comparator.comparingLong(ProductImportRejectionDTO::getLine));
+            return rejected;
+        }
+
+        long getCount() {
+            return count;
+        }
+    }
+
+    private static class ImportLine {
+
+        private final long lineNumber;
+
+        private final ProductDTO productDTO;
+
+        ImportLine(long lineNumber, ProductDTO productDTO) {
+            this.lineNumber = lineNumber;
+            this.productDTO = productDTO;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.netpos.desafionetpos.service;
+
+import com.netpos.desafionetpos.dto.ProductDTO;
+import com.netpos.desafionetpos.repository.ProductReactiveRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking reads of the Products, for clients which keep many requests open at once.
+ * <p>
+ * No thread waits for the database while a request is in progress, and the Products are emitted as they are read,
+ * at the pace the client consumes them. These reads bypass the {@code productById} cache and the search index of
+ * {@link ProductService}, and always hit the database.
+ */
+@Service
+public class ProductReactiveService {
+
+    private final Logger log = LoggerFactory.getLogger(ProductReactiveService.class);
+
+    private final ProductReactiveRepository productReactiveRepository;
+
+    public ProductReactiveService(ProductReactiveRepository productReactiveRepository) {
+        this.productReactiveRepository = productReactiveRepository;
+    }
+
+    /**
+     * Find the Products of a UserAccount filtered by name and code.
+     *
+     * @param userAccountId the id of the UserAccount who owns the Products.
+     * @param filter        the term to search in the name or code.
+     * @param order         the sort to use.
+     * @return the Products found.
+     */
+    public Flux<ProductDTO> findAllByNameAndCode(Long userAccountId, String filter, Sort order) {
+        log.debug("Find all Products reactively by UserAccount {}, filter: {}, order by: {}", userAccountId, filter, order);
+        return Flux.defer(() -> productReactiveRepository.findDtoByFilters(userAccountId, filter, order))
+                .onErrorMap(e -> e instanceof IllegalArgumentException || e instanceof InvalidDataAccessApiUsageException,
+                        e -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Ordenação inválida", e));
+    }
+
+    /**
+     * Get the details of a Product.
+     *
+     * @param productId     the id of the Product.
+     * @param userAccountId the id of the UserAccount who owns the Product.
+     * @return the Product, or an error with the status {@code 404 (Not Found)}.
+     */
+    public Mono<ProductDTO> findOne(Long productId, Long userAccountId) {
+        log.debug("Find Product reactively with ID: {}, and UserAccount with ID: {}", productId, userAccountId);
+        return productReactiveRepository.findDtoByIdAndUserAccount(productId, userAccountId)
+                .switchIfEmpty(Mono.error(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Produto não encontrado")));
+    }
+}
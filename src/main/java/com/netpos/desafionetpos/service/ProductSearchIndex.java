@@ -0,0 +1,347 @@
+package com.netpos.desafionetpos.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.netpos.desafionetpos.config.Constants;
+import com.netpos.desafionetpos.repository.ProductRepository;
+import com.netpos.desafionetpos.repository.projection.ProductSearchTerm;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory trigram index over the name and code of the Products, with one index per UserAccount.
+ * <p>
+ * The index maps each 3-gram to the ids of the Products containing it, so a {@code LIKE %filter%} search
+ * only has to fetch the Products containing every 3-gram of the filter instead of scanning the whole account.
+ * The candidates are a superset of the matches: the database still applies the filter to them.
+ * <p>
+ * The index of an account is loaded on its first search and then kept up to date by {@link ProductService},
+ * after each transaction commits. The indexes live in a Caffeine cache weighed by their number of Products and
+ * bounded by {@code application.search-index.maximum-products}, so the least used accounts are evicted and
+ * loaded again on their next search.
+ * <p>
+ * An index is loaded outside of the cache, so the query never runs under a lock of the map. A change committed
+ * while it loads may be missing from the rows read, so each change bumps a modification counter of the account
+ * before it is applied, and a load which saw the counter move is dropped and the search falls back to a scan.
+ */
+@Component
+public class ProductSearchIndex {
+
+    private static final int GRAM_SIZE = 3;
+
+    private static final int MODIFICATION_STRIPES = 64;
+
+    private final Logger log = LoggerFactory.getLogger(ProductSearchIndex.class);
+
+    private final ProductRepository productRepository;
+
+    private final Cache<Long, AccountIndex> accountIndexes;
+
+    private final AtomicLongArray modifications = new AtomicLongArray(MODIFICATION_STRIPES);
+
+    public ProductSearchIndex(ProductRepository productRepository,
+                              @Value("${application.search-index.maximum-products}") long maximumProducts) {
+        this.productRepository = productRepository;
+        this.accountIndexes = Caffeine.newBuilder()
+                .maximumWeight(maximumProducts)
+                .<Long, AccountIndex>weigher((userAccountId, accountIndex) -> Math.max(1, accountIndex.size()))
+                .build();
+    }
+
+    /**
+     * Find the ids of the Products of a UserAccount which may match the filter.
+     *
+     * @param userAccountId the id of the UserAccount who owns the Products.
+     * @param filter        the term to search in the name or code.
+     * @return the candidate ids, or empty if the index cannot narrow the search and the caller must scan.
+     */
+    public Optional<Set<Long>> findCandidates(Long userAccountId, String filter) {
+        // Short filters have no trigram, and LIKE wildcards or escapes in the filter do not match literally
+        if (filter == null || filter.length() < GRAM_SIZE
+                || filter.indexOf('%') >= 0 || filter.indexOf('_') >= 0 || filter.indexOf('\\') >= 0) {
+            return Optional.empty();
+        }
+        AccountIndex accountIndex = accountIndexes.getIfPresent(userAccountId);
+        if (accountIndex == null) {
+            accountIndex = load(userAccountId);
+            if (accountIndex == null) {
+                return Optional.empty();
+            }
+        }
+        Set<Long> candidates = accountIndex.candidates(grams(filter), Constants.MAX_SEARCH_CANDIDATES);
+        if (candidates.size() > Constants.MAX_SEARCH_CANDIDATES) {
+            return Optional.empty();
+        }
+        return Optional.of(candidates);
+    }
+
+    /**
+     * Index the name and code of a Product once the current transaction commits.
+     */
+    public void put(Long userAccountId, Long productId, String name, String code) {
+        afterCommit(userAccountId, accountIndex -> accountIndex.put(productId, name, code));
+    }
+
+    /**
+     * Index the new name of a Product once the current transaction commits, in place of the old one.
+     */
+    public void rename(Long userAccountId, Long productId, String name) {
+        afterCommit(userAccountId, accountIndex -> accountIndex.rename(productId, name));
+    }
+
+    /**
+     * Remove a Product from the index once the current transaction commits.
+     */
+    public void remove(Long userAccountId, Long productId) {
+        afterCommit(userAccountId, accountIndex -> accountIndex.remove(productId));
+    }
+
+    /**
+     * Remove several Products from the index once the current transaction commits.
+     */
+    public void removeAll(Long userAccountId, Collection<Long> productIds) {
+        List<Long> removedIds = List.copyOf(productIds);
+        afterCommit(userAccountId, accountIndex -> removedIds.forEach(accountIndex::remove));
+    }
+
+    /**
+     * Drop the index of a UserAccount once the current transaction commits, it is loaded again on the next search.
+     */
+    public void invalidate(Long userAccountId) {
+        afterCommit(() -> {
+            modifications.incrementAndGet(stripe(userAccountId));
+            accountIndexes.invalidate(userAccountId);
+        });
+    }
+
+    /**
+     * Load the index of a UserAccount and publish it, unless a change was committed while it was read.
+     *
+     * @return the index, or {@code null} if it may be missing a change.
+     */
+    private AccountIndex load(Long userAccountId) {
+        log.debug("Load the search index of UserAccount: {}", userAccountId);
+        int stripe = stripe(userAccountId);
+        long modificationCount = modifications.get(stripe);
+        AccountIndex accountIndex = new AccountIndex();
+        for (ProductSearchTerm searchTerm : productRepository.findSearchTermsByUserAccount(userAccountId)) {
+            accountIndex.put(searchTerm.getId(), searchTerm.getName(), searchTerm.getCode());
+        }
+
+        // Published before the check: a change counted after it is applied to the published index by its writer
+        AccountIndex publishedIndex = accountIndexes.asMap().putIfAbsent(userAccountId, accountIndex);
+        if (publishedIndex != null) {
+            return publishedIndex;
+        }
+        if (modifications.get(stripe) != modificationCount) {
+            accountIndexes.asMap().remove(userAccountId, accountIndex);
+            return null;
+        }
+        return accountIndex;
+    }
+
+    private static int stripe(Long userAccountId) {
+        return Long.hashCode(userAccountId) & (MODIFICATION_STRIPES - 1);
+    }
+
+    private static Set<String> grams(String... values) {
+        Set<String> grams = new HashSet<>();
+        for (String value : values) {
+            if (value == null) {
+                continue;
+            }
+            String lowerValue = value.toLowerCase(Locale.ROOT);
+            for (int i = 0; i + GRAM_SIZE <= lowerValue.length(); i++) {
+                grams.add(lowerValue.substring(i, i + GRAM_SIZE));
+            }
+        }
+        return grams;
+    }
+
+    /**
+     * Count the change and apply it to the index of the UserAccount, if loaded, once the current transaction commits.
+     * Going through {@code computeIfPresent} also weighs the index again.
+     */
+    private void afterCommit(Long userAccountId, Consumer<AccountIndex> change) {
+        afterCommit(() -> {
+            modifications.incrementAndGet(stripe(userAccountId));
+            accountIndexes.asMap().computeIfPresent(userAccountId, (id, accountIndex) -> {
+                change.accept(accountIndex);
+                return accountIndex;
+            });
+        });
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static class AccountIndex {
+
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+        private final Map<String, PostingList> postings = new HashMap<>();
+
+        /**
+         * The name and code indexed for each Product, from which the grams to remove are computed again.
+         */
+        private final Map<Long, String[]> productTerms = new HashMap<>();
+
+        int size() {
+            lock.readLock().lock();
+            try {
+                return productTerms.size();
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        /**
+         * @return the Products containing every gram, stopping once more than {@code limit} are found.
+         */
+        Set<Long> candidates(Set<String> grams, int limit) {
+            lock.readLock().lock();
+            try {
+                List<PostingList> postingLists = new ArrayList<>(grams.size());
+                for (String gram : grams) {
+                    PostingList postingList = postings.get(gram);
+                    if (postingList == null) {
+                        return Collections.emptySet();
+                    }
+                    postingLists.add(postingList);
+                }
+                // Walk the shortest posting list and look its ids up in the others
+                postingLists.sort(Comparator.comparingInt(PostingList::size));
+                PostingList shortest = postingLists.get(0);
+                Set<Long> candidates = new HashSet<>();
+                for (int i = 0; i < shortest.size() && candidates.size() <= limit; i++) {
+                    long productId = shortest.get(i);
+                    int matches = 1;
+                    while (matches < postingLists.size() && postingLists.get(matches).contains(productId)) {
+                        matches++;
+                    }
+                    if (matches == postingLists.size()) {
+                        candidates.add(productId);
+                    }
+                }
+                return candidates;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        void put(Long productId, String name, String code) {
+            lock.writeLock().lock();
+            try {
+                removeGrams(productId);
+                productTerms.put(productId, new String[]{name, code});
+                for (String gram : grams(name, code)) {
+                    postings.computeIfAbsent(gram, key -> new PostingList()).add(productId);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        void rename(Long productId, String name) {
+            lock.writeLock().lock();
+            try {
+                String[] terms = productTerms.get(productId);
+                if (terms != null) {
+                    put(productId, name, terms[1]);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        void remove(Long productId) {
+            lock.writeLock().lock();
+            try {
+                removeGrams(productId);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        private void removeGrams(Long productId) {
+            String[] terms = productTerms.remove(productId);
+            if (terms == null) {
+                return;
+            }
+            for (String gram : grams(terms)) {
+                PostingList postingList = postings.get(gram);
+                postingList.remove(productId);
+                if (postingList.size() == 0) {
+                    postings.remove(gram);
+                }
+            }
+        }
+    }
+
+    /**
+     * The ids of the Products containing one gram, sorted in a primitive array, which takes 8 bytes per id where a
+     * {@code HashSet<Long>} takes a boxed Long and a hash node. New Products get the highest ids, so adding one
+     * usually appends to the array.
+     */
+    private static class PostingList {
+
+        private long[] ids = new long[4];
+
+        private int size;
+
+        int size() {
+            return size;
+        }
+
+        long get(int index) {
+            return ids[index];
+        }
+
+        boolean contains(long id) {
+            return Arrays.binarySearch(ids, 0, size, id) >= 0;
+        }
+
+        void add(long id) {
+            int index = size == 0 || ids[size - 1] < id ? -(size + 1) : Arrays.binarySearch(ids, 0, size, id);
+            if (index >= 0) {
+                return;
+            }
+            int insertionPoint = -(index + 1);
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            System.arraycopy(ids, insertionPoint, ids, insertionPoint + 1, size - insertionPoint);
+            ids[insertionPoint] = id;
+            size++;
+        }
+
+        void remove(long id) {
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index < 0) {
+                return;
+            }
+            System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+            size--;
+        }
+    }
+}
@@ -1,98 +1,523 @@
 package com.netpos.desafionetpos.service;
 
+import com.netpos.desafionetpos.aop.retry.RetryOnConflict;
+import com.netpos.desafionetpos.config.CacheConfiguration;
 import com.netpos.desafionetpos.config.Constants;
+import com.netpos.desafionetpos.dto.AlterStockResultDTO;
+import com.netpos.desafionetpos.dto.ProductDeleteResultDTO;
 import com.netpos.desafionetpos.dto.ProductDTO;
+import com.netpos.desafionetpos.dto.ProductPageDTO;
+import com.netpos.desafionetpos.dto.StockMovementPageDTO;
+import com.netpos.desafionetpos.dto.vm.AlterStockItemVM;
 import com.netpos.desafionetpos.dto.vm.AlterStockVM;
+import com.netpos.desafionetpos.dto.vm.ProductEditVM;
+import com.netpos.desafionetpos.dto.vm.ProductPatchVM;
 import com.netpos.desafionetpos.entity.Product;
+import com.netpos.desafionetpos.entity.StockMovement;
 import com.netpos.desafionetpos.entity.enumeration.Operation;
+import com.netpos.desafionetpos.entity.enumeration.StockOperationStatus;
 import com.netpos.desafionetpos.mapper.ProductMapper;
+import com.netpos.desafionetpos.mapper.StockMovementMapper;
 import com.netpos.desafionetpos.repository.ProductRepository;
+import com.netpos.desafionetpos.repository.StockMovementRepository;
+import com.netpos.desafionetpos.repository.StockRepository;
+import org.hibernate.exception.ConstraintViolationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.mapping.PropertyReferenceException;
 import org.springframework.http.HttpStatus;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
+import javax.persistence.EntityManager;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collection;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @Transactional
 public class ProductService {
 
+    /**
+     * Cursor key value of a null property, outside of the Base64 url alphabet of the other values.
+     */
+    private static final String NULL_CURSOR_VALUE = "~";
+
+    /**
+     * The properties a page of Products can be sorted by, with how to read the cursor key value of each one.
+     * A Product without a Stock has a null {@code stock.quantity}.
+     */
+    private static final Map<String, Function<Product, Object>> CURSOR_PROPERTIES = Map.of(
+            "id", Product::getId,
+            "name", Product::getName,
+            "code", Product::getCode,
+            "price", Product::getPrice,
+            "version", Product::getVersion,
+            "createdDate", Product::getCreatedDate,
+            "lastModifiedDate", Product::getLastModifiedDate,
+            "deletedDate", Product::getDeletedDate,
+            "stock.quantity", product -> product.getStock() == null ? null : product.getStock().getQuantity());
+
     private final Logger log = LoggerFactory.getLogger(ProductService.class);
 
     private final ProductRepository productRepository;
 
+    private final StockRepository stockRepository;
+
+    private final StockMovementRepository stockMovementRepository;
+
     private final ProductMapper productMapper;
 
-    public ProductService(ProductRepository productRepository, ProductMapper productMapper) {
+    private final StockMovementMapper stockMovementMapper;
+
+    private final ProductSearchIndex productSearchIndex;
+
+    private final EntityManager entityManager;
+
+    private final CacheManager cacheManager;
+
+    private final StockMetrics stockMetrics;
+
+    private final StockMovementRecorder stockMovementRecorder;
+
+    public ProductService(ProductRepository productRepository, StockRepository stockRepository, StockMovementRepository stockMovementRepository,
+                          ProductMapper productMapper, StockMovementMapper stockMovementMapper, ProductSearchIndex productSearchIndex,
+                          EntityManager entityManager, CacheManager cacheManager, StockMetrics stockMetrics,
+                          StockMovementRecorder stockMovementRecorder) {
         this.productRepository = productRepository;
+        this.stockRepository = stockRepository;
+        this.stockMovementRepository = stockMovementRepository;
         this.productMapper = productMapper;
+        this.stockMovementMapper = stockMovementMapper;
+        this.productSearchIndex = productSearchIndex;
+        this.entityManager = entityManager;
+        this.cacheManager = cacheManager;
+        this.stockMetrics = stockMetrics;
+        this.stockMovementRecorder = stockMovementRecorder;
     }
 
     @Transactional(readOnly = true)
     public List<ProductDTO> findAllByNameAndCode(Long userAccountId, String filter, Sort order) {
         log.debug("Find all Products of by UserAccount {}, filter: {}, order by: {}", userAccountId, filter, order);
-        List<Product> productsByFilters = productRepository.findByFilters(userAccountId, filter, order);
-        return productMapper.toDto(productsByFilters);
+        filter = matchAllIfNull(filter);
+        Optional<Set<Long>> candidateIds = productSearchIndex.findCandidates(userAccountId, filter);
+        if (candidateIds.isEmpty()) {
+            return productRepository.findDtoByFilters(userAccountId, filter, order);
+        }
+        if (candidateIds.get().isEmpty()) {
+            return new ArrayList<>();
+        }
+        return productRepository.findDtoByFiltersAndIdIn(userAccountId, filter, candidateIds.get(), order);
+    }
+
+    /**
+     * Pass every Product of a UserAccount to the consumer as soon as it is read from the database.
+     * The rows are read as {@link ProductDTO}s, so the memory used does not grow with the size of the catalog.
+     *
+     * @param userAccountId the id of the UserAccount who owns the Products.
+     * @param filter        the term to search in the name or code.
+     * @param order         the sort to use.
+     * @param consumer      the consumer of each Product.
+     */
+    @Transactional(readOnly = true)
+    public void streamAllByNameAndCode(Long userAccountId, String filter, Sort order, Consumer<ProductDTO> consumer) {
+        log.debug("Stream all Products of by UserAccount {}, filter: {}, order by: {}", userAccountId, filter, order);
+        try (Stream<ProductDTO> products = productRepository.streamDtoByFilters(userAccountId, matchAllIfNull(filter), order)) {
+            products.forEach(consumer);
+        }
+    }
+
+    /**
+     * Get one page of the Products of a UserAccount, using keyset pagination.
+     * The id is appended to the sort as a tie-breaker, and the cursor holds the sort key of the last Product returned.
+     *
+     * @param userAccountId the id of the UserAccount who owns the Products.
+     * @param filter        the term to search in the name or code.
+     * @param order         the sort to use.
+     * @param cursor        the cursor returned with the previous page, or {@code null} to get the first page.
+     * @param limit         the maximum number of Products in the page.
+     * @return the page, with the cursor of the next page or {@code null} if this is the last one.
+     */
+    @Transactional(readOnly = true)
+    public ProductPageDTO findPageByNameAndCode(Long userAccountId, String filter, Sort order, String cursor, int limit) {
+        log.debug("Find a page of Products by UserAccount {}, filter: {}, order by: {}, cursor: {}, limit: {}", userAccountId, filter, order, cursor, limit);
+        if (limit < 1 || limit > Constants.MAX_PAGE_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "O limite deve estar entre 1 e " + Constants.MAX_PAGE_SIZE);
+        }
+        Sort keysetSort = order.getOrderFor("id") == null ? order.and(Sort.by("id")) : order;
+        if (keysetSort.stream().anyMatch(sortOrder -> !CURSOR_PROPERTIES.containsKey(sortOrder.getProperty()))) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Ordenação inválida");
+        }
+        filter = matchAllIfNull(filter);
+        Set<Long> candidateIds = productSearchIndex.findCandidates(userAccountId, filter).orElse(null);
+        if (candidateIds != null && candidateIds.isEmpty()) {
+            return new ProductPageDTO(new ArrayList<>(), null);
+        }
+
+        List<Product> products;
+        try {
+            products = productRepository.findPageByFilters(userAccountId, filter, candidateIds, keysetSort, decodeCursor(cursor), limit + 1);
+        } catch (IllegalArgumentException | InvalidDataAccessApiUsageException | PropertyReferenceException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cursor ou ordenação inválidos");
+        }
+
+        String nextCursor = null;
+        if (products.size() > limit) {
+            products = products.subList(0, limit);
+            nextCursor = encodeCursor(products.get(limit - 1), keysetSort);
+        }
+        return new ProductPageDTO(productMapper.toDto(products), nextCursor);
     }
 
+    /**
+     * Get the details of a Product, read through the {@link CacheConfiguration#PRODUCT_BY_ID_CACHE} cache.
+     * The returned instance may be shared with other callers and must not be modified.
+     * It may lag behind a concurrent change by up to the time-to-live of the cache.
+     *
+     * @param productId     the id of the Product.
+     * @param userAccountId the id of the UserAccount who owns the Product.
+     * @return the Product.
+     */
     @Transactional(readOnly = true)
+    @Cacheable(CacheConfiguration.PRODUCT_BY_ID_CACHE)
     public ProductDTO findOne(Long productId, Long userAccountId) {
         log.debug("Find Product with ID: {}, and UserAccount with ID: {}", productId, userAccountId);
-        Optional<Product> productOwner = productRepository.findOneByIdAndUserAccount_Id(productId, userAccountId);
+        Optional<ProductDTO> productOwner = productRepository.findDtoByIdAndUserAccount(productId, userAccountId);
         if (productOwner.isEmpty()) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Produto não encontrado");
         }
-        return productMapper.toDto(productOwner.get());
+        return productOwner.get();
     }
 
+    @CacheEvict(cacheNames = CacheConfiguration.PRODUCT_BY_ID_CACHE, condition = "#productDTO.id != null",
+            key = "new org.springframework.cache.interceptor.SimpleKey(#productDTO.id, #userAccountId)")
     public ProductDTO save(ProductDTO productDTO, Long userAccountId) {
         log.debug("Save a Product: {}, for the UserAccount Id: {}", productDTO, userAccountId);
-        // Validates the "code" field in Product should be unique for each UserAccount
-        Optional<Product> existCodeAndUserAccount = productRepository.findOneByCodeAndUserAccount_Id(productDTO.getCode(), userAccountId);
-        if (productDTO.getId() == null && existCodeAndUserAccount.isPresent()) {   //Adding
+        Product product = productMapper.toEntity(productDTO);
+        try {
+            // The "code" field in Product is unique for each UserAccount, checked by the database on the insert itself
+            product = productRepository.saveAndFlush(product);
+        } catch (DataIntegrityViolationException e) {
+            if (!isViolationOf(e, Product.CODE_UNIQUE_CONSTRAINT)) {
+                throw e;
+            }
+            // The failed insert is still queued in the persistence context, which must not be flushed again
+            entityManager.clear();
             throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY, "Já existe um produto com o código: " + productDTO.getCode());
         }
-
-        Product product = productMapper.toEntity(productDTO);
-        product = productRepository.save(product);
+        productSearchIndex.put(userAccountId, product.getId(), product.getName(), product.getCode());
 
         return productMapper.toDto(product);
     }
 
+    static boolean isViolationOf(DataIntegrityViolationException e, String constraintName) {
+        if (!(e.getCause() instanceof ConstraintViolationException)) {
+            return false;
+        }
+        String violatedConstraint = ((ConstraintViolationException) e.getCause()).getConstraintName();
+        return violatedConstraint != null && violatedConstraint.toLowerCase(Locale.ROOT).contains(constraintName);
+    }
+
+    /**
+     * Change the name and price of a Product.
+     *
+     * @param productId     the id of the Product to edit.
+     * @param userAccountId the id of the UserAccount who owns the Product.
+     * @param productEditVM the new name and price, and the version they were based on, if known.
+     * @return the edited Product, with its new version.
+     * @throws ObjectOptimisticLockingFailureException if the Product no longer has the given version.
+     */
+    @CacheEvict(cacheNames = CacheConfiguration.PRODUCT_BY_ID_CACHE, key = "new org.springframework.cache.interceptor.SimpleKey(#productId, #userAccountId)")
+    public ProductDTO edit(Long productId, Long userAccountId, ProductEditVM productEditVM) {
+        log.debug("Request to edit Product: {}, from UserAccount: {}, with data: {}", productId, userAccountId, productEditVM);
+        // Changes the managed entity, so only the Product row is updated on flush
+        Product product = productRepository.findOneByIdAndUserAccount_Id(productId, userAccountId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Produto não encontrado"));
+        if (productEditVM.getVersion() != null && !productEditVM.getVersion().equals(product.getVersion())) {
+            throw new ObjectOptimisticLockingFailureException(Product.class, productId);
+        }
+        // Hibernate compares the prices by value when it checks the Product for changes
+        boolean changed = !Objects.equals(product.getName(), productEditVM.getName())
+                || (product.getPrice() == null || productEditVM.getPrice() == null
+                ? product.getPrice() != productEditVM.getPrice() : product.getPrice().compareTo(productEditVM.getPrice()) != 0);
+        product.setName(productEditVM.getName());
+        product.setPrice(productEditVM.getPrice());
+        productSearchIndex.put(userAccountId, product.getId(), product.getName(), product.getCode());
+        ProductDTO result = productMapper.toDto(product);
+        // The UPDATE is only written on commit, which bumps the version of a changed Product
+        if (changed) {
+            result.setVersion(product.getVersion() + 1);
+        }
+        return result;
+    }
+
+    /**
+     * Change only the given fields of a Product, with a single UPDATE statement.
+     *
+     * @param productId      the id of the Product to change.
+     * @param userAccountId  the id of the UserAccount who owns the Product.
+     * @param productPatchVM the fields to change, the {@code null} ones are kept.
+     */
+    @CacheEvict(cacheNames = CacheConfiguration.PRODUCT_BY_ID_CACHE, key = "new org.springframework.cache.interceptor.SimpleKey(#productId, #userAccountId)")
+    public void patch(Long productId, Long userAccountId, ProductPatchVM productPatchVM) {
+        log.debug("Request to patch Product: {}, from UserAccount: {}, with data: {}", productId, userAccountId, productPatchVM);
+        if (productPatchVM.getName() == null && productPatchVM.getPrice() == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Informe ao menos um campo para alterar");
+        }
+        int updated = productRepository.patch(productId, userAccountId, productPatchVM.getName(), productPatchVM.getPrice());
+        if (updated == 0) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Produto não encontrado");
+        }
+        if (productPatchVM.getName() != null) {
+            productSearchIndex.rename(userAccountId, productId, productPatchVM.getName());
+        }
+    }
+
     /**
      * Delete the Product by id.
      *
      * @param productId     the id of the Product to delete.
      * @param userAccountId the id of the UserAccount who owns the Product.
      */
+    @CacheEvict(CacheConfiguration.PRODUCT_BY_ID_CACHE)
     public void delete(Long productId, Long userAccountId) {
         log.debug("Request to delete product: {}, from UserAccount: {}", productId, userAccountId);
-        ProductDTO productDTO = findOne(productId, userAccountId);
-        productRepository.deleteById(productDTO.getId());
+        // A single UPDATE checks the owner and soft deletes, it runs right away so that a Product created later in
+        // the same transaction may reuse the code
+        if (productRepository.softDeleteByUserAccount(List.of(productId), userAccountId) == 0) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Produto não encontrado");
+        }
+        productSearchIndex.remove(userAccountId, productId);
     }
 
-    public void alterStock(AlterStockVM alterStockVM, Long productId, Long userAccountId) {
-        ProductDTO productDTO = findOne(productId, userAccountId);
-        int currentQuantity = productDTO.getStock().getQuantity();
-        int alterQuantity = alterStockVM.getQuantity();
+    /**
+     * Delete the Products of a UserAccount among the given ids, the ids which are not found are ignored.
+     *
+     * @param productIds    the ids of the Products to delete.
+     * @param userAccountId the id of the UserAccount who owns the Products.
+     * @return the number of deleted Products.
+     */
+    public ProductDeleteResultDTO deleteAll(Collection<Long> productIds, Long userAccountId) {
+        log.debug("Request to delete {} products, from UserAccount: {}", productIds.size(), userAccountId);
+        if (productIds.size() > Constants.MAX_DELETE_BATCH_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Informe no máximo " + Constants.MAX_DELETE_BATCH_SIZE + " produtos");
+        }
+        return new ProductDeleteResultDTO(softDelete(productIds, userAccountId));
+    }
 
-        if (alterStockVM.getOperation().equals(Operation.ADD)) {
-            if (currentQuantity + alterQuantity > Constants.MAX_PRODUCT_STOCK) {
-                throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY, "Somente pode adicionar mais " + (Constants.MAX_PRODUCT_STOCK - currentQuantity) + " unidades");
+    /**
+     * Delete every Product of a UserAccount whose name or code contains the filter, with a single UPDATE.
+     * The deleted ids are not read, so the cached details and the search index of the whole UserAccount are invalidated.
+     *
+     * @param filter        the term to search in the name or code, which must not be blank.
+     * @param userAccountId the id of the UserAccount who owns the Products.
+     * @return the number of deleted Products.
+     */
+    public ProductDeleteResultDTO deleteAllByNameAndCode(String filter, Long userAccountId) {
+        log.debug("Request to delete the products matching: {}, from UserAccount: {}", filter, userAccountId);
+        if (filter.isBlank()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Informe um filtro para excluir os produtos");
+        }
+        int deleted = productRepository.softDeleteByFilters(userAccountId, filter);
+        if (deleted > 0) {
+            evictCachedProducts(userAccountId);
+            productSearchIndex.invalidate(userAccountId);
+        }
+        return new ProductDeleteResultDTO(deleted);
+    }
+
+    /**
+     * Evict the cached details of every Product of a UserAccount. The keys are found in the native cache and evicted
+     * through the transaction aware cache, so the evictions still wait for the commit.
+     */
+    @SuppressWarnings("unchecked")
+    private void evictCachedProducts(Long userAccountId) {
+        Cache productByIdCache = cacheManager.getCache(CacheConfiguration.PRODUCT_BY_ID_CACHE);
+        Map<Object, Object> cachedProducts = ((com.github.benmanes.caffeine.cache.Cache<Object, Object>) productByIdCache.getNativeCache()).asMap();
+        cachedProducts.forEach((key, value) -> {
+            if (value instanceof ProductDTO && key.equals(new SimpleKey(((ProductDTO) value).getId(), userAccountId))) {
+                productByIdCache.evict(key);
             }
-            productDTO.getStock().setQuantity(currentQuantity + alterQuantity);
-        } else {
-            if (currentQuantity - alterQuantity < 0) {
-                throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY, "Estoque insuficiente, somente pode retirar " + currentQuantity + " unidades");
+        });
+    }
+
+    private int softDelete(Collection<Long> productIds, Long userAccountId) {
+        if (productIds.isEmpty()) {
+            return 0;
+        }
+        int deleted = productRepository.softDeleteByUserAccount(productIds, userAccountId);
+        Cache productByIdCache = cacheManager.getCache(CacheConfiguration.PRODUCT_BY_ID_CACHE);
+        for (Long productId : productIds) {
+            productByIdCache.evict(new SimpleKey(productId, userAccountId));
+        }
+        productSearchIndex.removeAll(userAccountId, productIds);
+        return deleted;
+    }
+
+    /**
+     * Get one page of the Stock movements of a Product, newest first, using keyset pagination on the movement id.
+     *
+     * @param productId     the id of the Product.
+     * @param userAccountId the id of the UserAccount who owns the Product.
+     * @param cursor        the cursor returned with the previous page, or {@code null} to get the newest movements.
+     * @param limit         the maximum number of movements in the page.
+     * @return the page, with the cursor of the next page or {@code null} if this is the last one.
+     */
+    @Transactional(readOnly = true)
+    public StockMovementPageDTO findStockMovements(Long productId, Long userAccountId, Long cursor, int limit) {
+        log.debug("Find the Stock movements of Product with ID: {}, and UserAccount with ID: {}, cursor: {}, limit: {}", productId, userAccountId, cursor, limit);
+        if (limit < 1 || limit > Constants.MAX_PAGE_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "O limite deve estar entre 1 e " + Constants.MAX_PAGE_SIZE);
+        }
+        if (productRepository.findIdsByUserAccount(Set.of(productId), userAccountId).isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Produto não encontrado");
+        }
+
+        List<StockMovement> movements = stockMovementRepository.findPageByProduct(productId, userAccountId,
+                cursor == null ? Long.MAX_VALUE : cursor, PageRequest.of(0, limit + 1));
+        String nextCursor = null;
+        if (movements.size() > limit) {
+            movements = movements.subList(0, limit);
+            nextCursor = String.valueOf(movements.get(limit - 1).getId());
+        }
+        return new StockMovementPageDTO(stockMovementMapper.toDto(movements), nextCursor);
+    }
+
+    /**
+     * Add or remove units from the Stock of a Product.
+     * The change and the ownership check are one statement, so concurrent operations never overwrite each other
+     * and a rejection costs no second query. The applied change is the only write of the transaction, its
+     * StockMovement is appended to the ledger once it commits, by the {@link StockMovementRecorder}.
+     * Retried in a new transaction when it fails on a concurrent change, such as a lock timeout.
+     *
+     * @param alterStockVM  the operation and quantity to apply.
+     * @param productId     the id of the Product.
+     * @param userAccountId the id of the UserAccount who owns the Product.
+     * @return the applied movement, with the new quantity of the Stock.
+     */
+    @CacheEvict(cacheNames = CacheConfiguration.PRODUCT_BY_ID_CACHE, key = "new org.springframework.cache.interceptor.SimpleKey(#productId, #userAccountId)")
+    @RetryOnConflict
+    public AlterStockResultDTO alterStock(AlterStockVM alterStockVM, Long productId, Long userAccountId) {
+        log.debug("Request to {} {} units of the Stock of Product: {}, from UserAccount: {}", alterStockVM.getOperation(), alterStockVM.getQuantity(), productId, userAccountId);
+        int alterQuantity = alterStockVM.getQuantity();
+        int delta = alterStockVM.getOperation().equals(Operation.ADD) ? alterQuantity : -alterQuantity;
+        AlterStockResultDTO result = stockRepository.applyDelta(productId, userAccountId, delta);
+        if (result.getStatus() == StockOperationStatus.APPLIED) {
+            stockMovementRecorder.record(productId, userAccountId, alterStockVM.getOperation(), alterQuantity);
+        }
+        stockMetrics.record(alterStockVM.getOperation(), result.getStatus());
+
+        switch (result.getStatus()) {
+            case APPLIED:
+                return result;
+            case NOT_FOUND:
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Produto não encontrado");
+            case STOCK_LIMIT_EXCEEDED:
+                throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY, "Adicionar " + alterQuantity + " unidades ultrapassa o limite de " + Constants.MAX_PRODUCT_STOCK + " unidades em estoque");
+            default:
+                throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY, "Estoque insuficiente para retirar " + alterQuantity + " unidades");
+        }
+    }
+
+    /**
+     * Add or remove units from the Stock of several Products in one transaction.
+     * Ownership of every Product is checked with one query, then all movements are sent as one JDBC batch.
+     *
+     * @param items         the movements to apply, in order.
+     * @param userAccountId the id of the UserAccount who owns the Products.
+     * @return the result of each movement, in the same order as the items.
+     */
+    @RetryOnConflict
+    public List<AlterStockResultDTO> alterStockBatch(List<AlterStockItemVM> items, Long userAccountId) {
+        log.debug("Request to apply a batch of {} Stock movements, from UserAccount: {}", items.size(), userAccountId);
+        Set<Long> requestedIds = items.stream().map(AlterStockItemVM::getProductId).collect(Collectors.toSet());
+        Set<Long> ownedIds = productRepository.findIdsByUserAccount(requestedIds, userAccountId);
+
+        List<AlterStockItemVM> ownedItems = items.stream()
+                .filter(item -> ownedIds.contains(item.getProductId()))
+                .collect(Collectors.toList());
+        long[] productIds = new long[ownedItems.size()];
+        int[] deltas = new int[ownedItems.size()];
+        for (int i = 0; i < ownedItems.size(); i++) {
+            AlterStockItemVM item = ownedItems.get(i);
+            productIds[i] = item.getProductId();
+            deltas[i] = item.getOperation().equals(Operation.ADD) ? item.getQuantity() : -item.getQuantity();
+        }
+        int[] updateCounts = ownedItems.isEmpty() ? new int[0] : stockRepository.applyDeltas(userAccountId, productIds, deltas);
+        stockMovementRecorder.recordAll(userAccountId, productIds, deltas, updateCounts);
+        Cache productByIdCache = cacheManager.getCache(CacheConfiguration.PRODUCT_BY_ID_CACHE);
+        for (Long productId : ownedIds) {
+            productByIdCache.evict(new SimpleKey(productId, userAccountId));
+        }
+
+        List<AlterStockResultDTO> results = new ArrayList<>(items.size());
+        int applied = 0;
+        for (AlterStockItemVM item : items) {
+            StockOperationStatus status;
+            if (!ownedIds.contains(item.getProductId())) {
+                status = StockOperationStatus.NOT_FOUND;
+            } else if (updateCounts[applied++] == 1) {
+                status = StockOperationStatus.APPLIED;
+            } else if (item.getOperation().equals(Operation.ADD)) {
+                status = StockOperationStatus.STOCK_LIMIT_EXCEEDED;
+            } else {
+                status = StockOperationStatus.INSUFFICIENT_STOCK;
             }
-            productDTO.getStock().setQuantity(currentQuantity - alterQuantity);
+            stockMetrics.record(item.getOperation(), status);
+            results.add(new AlterStockResultDTO(item.getProductId(), status));
         }
-        Product product = productMapper.toEntity(productDTO);
-        productRepository.save(product);
+        return results;
+    }
+
+    /**
+     * Without a filter every Product is listed, on all the listing paths.
+     */
+    private static String matchAllIfNull(String filter) {
+        return filter == null ? "" : filter;
+    }
+
+    /**
+     * Encode the sort key values of the product, writing {@link #NULL_CURSOR_VALUE} for a null value.
+     * The sort properties are the ones of {@link #CURSOR_PROPERTIES}.
+     */
+    private static String encodeCursor(Product product, Sort sort) {
+        return sort.stream()
+                .map(order -> CURSOR_PROPERTIES.get(order.getProperty()).apply(product))
+                .map(value -> value == null ? NULL_CURSOR_VALUE
+                        : Base64.getUrlEncoder().withoutPadding().encodeToString(value.toString().getBytes(StandardCharsets.UTF_8)))
+                .collect(Collectors.joining("."));
+    }
+
+    private static List<String> decodeCursor(String cursor) {
+        if (cursor == null) {
+            return null;
+        }
+        return Arrays.stream(cursor.split("\\.", -1))
+                .map(value -> NULL_CURSOR_VALUE.equals(value) ? null
+                        : new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8))
+                .collect(Collectors.toList());
     }
 }
@@ -0,0 +1,42 @@
+package com.netpos.desafionetpos.service;
+
+import com.netpos.desafionetpos.entity.enumeration.Operation;
+import com.netpos.desafionetpos.entity.enumeration.StockOperationStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Counts the Stock movements by {@link Operation} and by {@link StockOperationStatus}, so the rejections for
+ * insufficient stock or for exceeding the Stock limit can be told apart from the applied movements.
+ * <p>
+ * Every counter is registered up front, so recording a movement is a lookup in two enum maps.
+ */
+@Component
+public class StockMetrics {
+
+    public static final String STOCK_OPERATIONS = "app.stock.operations";
+
+    private final Map<Operation, Map<StockOperationStatus, Counter>> counters = new EnumMap<>(Operation.class);
+
+    public StockMetrics(MeterRegistry meterRegistry) {
+        for (Operation operation : Operation.values()) {
+            Map<StockOperationStatus, Counter> countersByStatus = new EnumMap<>(StockOperationStatus.class);
+            for (StockOperationStatus status : StockOperationStatus.values()) {
+                countersByStatus.put(status, Counter.builder(STOCK_OPERATIONS)
+                        .description("Stock movements by operation and result")
+                        .tag("operation", operation.name())
+                        .tag("status", status.name())
+                        .register(meterRegistry));
+            }
+            counters.put(operation, countersByStatus);
+        }
+    }
+
+    public void record(Operation operation, StockOperationStatus status) {
+        counters.get(operation).get(status).increment();
+    }
+}
@@ -0,0 +1,155 @@
+package com.netpos.desafionetpos.service;
+
+import com.netpos.desafionetpos.entity.enumeration.Operation;
+import com.netpos.desafionetpos.repository.StockMovementRepository;
+import com.netpos.desafionetpos.repository.projection.StockMovementEntry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Appends the applied Stock changes to the StockMovement ledger outside of the transactions applying them.
+ * <p>
+ * The quantity of a Stock is the source of truth and the ledger is its history, so a stock change only writes the
+ * Stock row. Its movement is queued once its transaction commits, and the queue is written every
+ * {@code application.stock-movement.flush-interval}, up to {@code application.stock-movement.batch-size} movements
+ * per JDBC batch. When the queue is full the committing thread writes its movements itself.
+ * The movements still queued when the application is stopped are written on shutdown, those queued when the process
+ * dies are lost from the history while the quantities they changed are not.
+ */
+@Component
+public class StockMovementRecorder {
+
+    private final Logger log = LoggerFactory.getLogger(StockMovementRecorder.class);
+
+    private final StockMovementRepository stockMovementRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Writes from an afterCommit callback, where the committed transaction is still bound to the thread.
+     */
+    private final TransactionTemplate newTransactionTemplate;
+
+    private final BlockingQueue<StockMovementEntry> queue;
+
+    private final int batchSize;
+
+    public StockMovementRecorder(StockMovementRepository stockMovementRepository, PlatformTransactionManager transactionManager,
+                                 @Value("${application.stock-movement.queue-capacity}") int queueCapacity,
+                                 @Value("${application.stock-movement.batch-size}") int batchSize) {
+        this.stockMovementRepository = stockMovementRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.newTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.newTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Queue the movement once the current transaction commits.
+     *
+     * @param productId     the id of the Product whose Stock was changed.
+     * @param userAccountId the id of the UserAccount who changed it.
+     * @param operation     the operation applied.
+     * @param quantity      the quantity added or removed.
+     */
+    public void record(long productId, Long userAccountId, Operation operation, int quantity) {
+        List<StockMovementEntry> movements = List.of(new StockMovementEntry(productId, userAccountId, operation, quantity, Instant.now()));
+        afterCommit(() -> enqueue(movements));
+    }
+
+    /**
+     * Queue the movements of a batch of deltas once the current transaction commits, those not applied are skipped.
+     *
+     * @param userAccountId the id of the UserAccount who changed the Stocks.
+     * @param productIds    the ids of the Products, in the order the deltas were applied.
+     * @param deltas        the quantity added (positive) or removed (negative) for each Product.
+     * @param updateCounts  the update count of each delta, {@code 1} if it was applied.
+     */
+    public void recordAll(Long userAccountId, long[] productIds, int[] deltas, int[] updateCounts) {
+        Instant createdDate = Instant.now();
+        List<StockMovementEntry> movements = new ArrayList<>(productIds.length);
+        for (int i = 0; i < productIds.length; i++) {
+            if (updateCounts[i] == 1) {
+                movements.add(new StockMovementEntry(productIds[i], userAccountId,
+                        deltas[i] < 0 ? Operation.SUB : Operation.ADD, Math.abs(deltas[i]), createdDate));
+            }
+        }
+        if (!movements.isEmpty()) {
+            afterCommit(() -> enqueue(movements));
+        }
+    }
+
+    /**
+     * Write the queued movements, run every {@code application.stock-movement.flush-interval}.
+     * A call waits for the one in progress, so the movements queued before it are written when it returns.
+     *
+     * @return the number of movements written.
+     */
+    @Scheduled(fixedDelayString = "${application.stock-movement.flush-interval}")
+    public synchronized int flush() {
+        int written = 0;
+        List<StockMovementEntry> batch = new ArrayList<>(batchSize);
+        while (queue.drainTo(batch, batchSize) > 0) {
+            write(transactionTemplate, batch);
+            written += batch.size();
+            batch.clear();
+        }
+        return written;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        log.debug("Writing the queued StockMovements");
+        flush();
+    }
+
+    private void enqueue(List<StockMovementEntry> movements) {
+        List<StockMovementEntry> overflow = new ArrayList<>();
+        for (StockMovementEntry movement : movements) {
+            if (!queue.offer(movement)) {
+                overflow.add(movement);
+            }
+        }
+        if (!overflow.isEmpty()) {
+            write(newTransactionTemplate, overflow);
+        }
+    }
+
+    private void write(TransactionTemplate transactionTemplate, List<StockMovementEntry> movements) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> stockMovementRepository.appendAll(movements));
+        } catch (DataAccessException e) {
+            log.error("Could not write {} StockMovements, they are missing from the history", movements.size(), e);
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,98 @@
+package com.netpos.desafionetpos.service;
+
+import com.netpos.desafionetpos.repository.UserAccountRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bitset of the ids of the existing UserAccounts, used to validate the {@code user_id} header without a database round trip.
+ * <p>
+ * Reads are lock free. An id missing from the bitset is checked against the database and added if it exists, so the
+ * bitset warms up by itself and never answers {@code false} for an existing UserAccount.
+ */
+@Component
+public class UserAccountRegistry {
+
+    /**
+     * Ids above this limit are not kept in the bitset, which therefore never grows beyond 8 MB.
+     */
+    private static final long MAX_REGISTERED_ID = (1L << 26) - 1;
+
+    private static final int INITIAL_WORDS = 64;
+
+    private final UserAccountRepository userAccountRepository;
+
+    private volatile AtomicLongArray words = new AtomicLongArray(INITIAL_WORDS);
+
+    public UserAccountRegistry(UserAccountRepository userAccountRepository) {
+        this.userAccountRepository = userAccountRepository;
+    }
+
+    /**
+     * Check if a UserAccount exists, querying the database only when the id is not in the bitset.
+     *
+     * @param id the id of the UserAccount.
+     * @return {@code true} if the UserAccount exists.
+     */
+    public boolean exists(Long id) {
+        if (id == null) {
+            return false;
+        }
+        if (contains(id)) {
+            return true;
+        }
+        boolean exists = userAccountRepository.existsById(id);
+        if (exists) {
+            register(id);
+        }
+        return exists;
+    }
+
+    /**
+     * Add the id of a UserAccount to the bitset, once the current transaction commits.
+     *
+     * @param id the id of the UserAccount.
+     */
+    public void register(Long id) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            add(id);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                add(id);
+            }
+        });
+    }
+
+    private boolean contains(long id) {
+        if (id < 0 || id > MAX_REGISTERED_ID) {
+            return false;
+        }
+        int wordIndex = (int) (id >>> 6);
+        AtomicLongArray currentWords = words;
+        return wordIndex < currentWords.length() && (currentWords.get(wordIndex) & (1L << id)) != 0;
+    }
+
+    // Writers are serialized so that no bit is lost while the array is copied to grow it
+    private synchronized void add(long id) {
+        if (id < 0 || id > MAX_REGISTERED_ID) {
+            return;
+        }
+        int wordIndex = (int) (id >>> 6);
+        AtomicLongArray currentWords = words;
+        if (wordIndex >= currentWords.length()) {
+            AtomicLongArray grownWords = new AtomicLongArray(Math.max(wordIndex + 1, currentWords.length() * 2));
+            for (int i = 0; i < currentWords.length(); i++) {
+                grownWords.set(i, currentWords.get(i));
+            }
+            words = grownWords;
+            currentWords = grownWords;
+        }
+        currentWords.set(wordIndex, currentWords.get(wordIndex) | (1L << id));
+    }
+}
@@ -8,13 +8,15 @@ import com.netpos.desafionetpos.repository.UserAccountRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 @Transactional
@@ -26,12 +28,19 @@ public class UserAccountService {
 
     private final UserAccountMapper userAccountMapper;
 
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
 
-    public UserAccountService(UserAccountRepository userAccountRepository, UserAccountMapper userAccountMapper, PasswordEncoder passwordEncoder) {
+    private final UserAccountRegistry userAccountRegistry;
+
+    private final TransactionTemplate transactionTemplate;
+
+    public UserAccountService(UserAccountRepository userAccountRepository, UserAccountMapper userAccountMapper, PasswordHashingService passwordHashingService,
+                              UserAccountRegistry userAccountRegistry, TransactionTemplate transactionTemplate) {
         this.userAccountRepository = userAccountRepository;
         this.userAccountMapper = userAccountMapper;
-        this.passwordEncoder = passwordEncoder;
+        this.passwordHashingService = passwordHashingService;
+        this.userAccountRegistry = userAccountRegistry;
+        this.transactionTemplate = transactionTemplate;
     }
 
     @Transactional(readOnly = true)
@@ -57,18 +66,32 @@ public class UserAccountService {
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "UserAccount with ID " + id + " does not exist"));
     }
 
-    public UserAccountDTO save(UserAccountVM userAccountVM) {
+    /**
+     * Save a new UserAccount. The password is hashed by the {@link PasswordHashingService} without blocking the caller,
+     * and the UserAccount is persisted in its own transaction once the hash completes, so neither a request thread
+     * nor a database connection is held while the hash waits in the queue.
+     *
+     * @param userAccountVM the UserAccount to save.
+     * @return the saved UserAccount, completed on a thread of the hashing pool.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public CompletableFuture<UserAccountDTO> save(UserAccountVM userAccountVM) {
         log.debug("Save a new UserAccount {}", userAccountVM);
+        return passwordHashingService.encode(userAccountVM.getPassword())
+                .thenApply(encryptedPassword -> transactionTemplate.execute(status -> persist(userAccountVM, encryptedPassword)));
+    }
+
+    private UserAccountDTO persist(UserAccountVM userAccountVM, String encryptedPassword) {
         Optional<UserAccount> userAccountExists = userAccountRepository.findOneByEmail(userAccountVM.getEmail());
         if (userAccountExists.isPresent()) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "O email ja existe");
         }
 
         UserAccount userAccount = userAccountMapper.toEntity(userAccountVM);
-        String encryptedPassword = passwordEncoder.encode(userAccountVM.getPassword());
         userAccount.setPassword(encryptedPassword);
 
         userAccount = userAccountRepository.save(userAccount);
+        userAccountRegistry.register(userAccount.getId());
         return userAccountMapper.toDto(userAccount);
     }
 }
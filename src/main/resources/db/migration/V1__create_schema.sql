@@ -0,0 +1,51 @@
+CREATE SEQUENCE user_account_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE stock_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE product_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE user_account (
+    id                 BIGINT       NOT NULL,
+    created_date       TIMESTAMP,
+    last_modified_date TIMESTAMP,
+    email              VARCHAR(254),
+    full_name          VARCHAR(50)  NOT NULL,
+    password           VARCHAR(60)  NOT NULL,
+    CONSTRAINT pk_user_account PRIMARY KEY (id),
+    CONSTRAINT ux_user_account_email UNIQUE (email)
+);
+
+CREATE TABLE stock (
+    id                 BIGINT  NOT NULL,
+    created_date       TIMESTAMP,
+    last_modified_date TIMESTAMP,
+    quantity           INTEGER NOT NULL CHECK (quantity >= 0 AND quantity <= 1000),
+    CONSTRAINT pk_stock PRIMARY KEY (id)
+);
+
+CREATE TABLE product (
+    id                 BIGINT         NOT NULL,
+    created_date       TIMESTAMP,
+    last_modified_date TIMESTAMP,
+    code               VARCHAR(50),
+    deleted_date       TIMESTAMP,
+    name               VARCHAR(254)   NOT NULL,
+    price              DECIMAL(19, 2) NOT NULL,
+    stock_id           BIGINT,
+    user_account_id    BIGINT,
+    CONSTRAINT pk_product PRIMARY KEY (id),
+    CONSTRAINT ux_product_stock UNIQUE (stock_id),
+    CONSTRAINT fk_product_stock FOREIGN KEY (stock_id) REFERENCES stock (id),
+    CONSTRAINT fk_product_user_account FOREIGN KEY (user_account_id) REFERENCES user_account (id)
+);
+
+CREATE TABLE stock_movement (
+    id                 BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    created_date       TIMESTAMP,
+    last_modified_date TIMESTAMP,
+    operation          VARCHAR(10) NOT NULL,
+    quantity           INTEGER     NOT NULL CHECK (quantity >= 0),
+    stock_id           BIGINT      NOT NULL,
+    user_account_id    BIGINT,
+    CONSTRAINT pk_stock_movement PRIMARY KEY (id),
+    CONSTRAINT fk_stock_movement_stock FOREIGN KEY (stock_id) REFERENCES stock (id),
+    CONSTRAINT fk_stock_movement_user_account FOREIGN KEY (user_account_id) REFERENCES user_account (id)
+);
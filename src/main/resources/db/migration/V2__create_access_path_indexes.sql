@@ -0,0 +1,16 @@
+-- Every Product query is scoped to a UserAccount and, through the @Where on Product, to the rows not deleted
+
+-- findOneByCodeAndUserAccount_Id and the code checks of the import
+CREATE INDEX ix_product_user_account_code ON product (user_account_id, code);
+
+-- the ownership checks by id, the batches by id and the export ordered by id
+CREATE INDEX ix_product_user_account_id ON product (user_account_id, id);
+
+-- the listings and searches of the live Products, ordered or filtered by name
+CREATE INDEX ix_product_user_account_deleted_name ON product (user_account_id, deleted_date, name);
+
+-- the ledger of a Stock, newest movement first
+CREATE INDEX ix_stock_movement_stock_id ON stock_movement (stock_id, id);
+
+-- the users listing and search, ordered by full name
+CREATE INDEX ix_user_account_full_name ON user_account (full_name);
@@ -0,0 +1,36 @@
+-- Soft deleted Products are moved out of the hot tables by the ProductArchiveService, with the quantity of their
+-- Stock and their StockMovements. The archive has no foreign keys, so it never slows down the writes of the hot tables.
+
+CREATE TABLE product_archive (
+    id                 BIGINT         NOT NULL,
+    created_date       TIMESTAMP,
+    last_modified_date TIMESTAMP,
+    code               VARCHAR(50),
+    deleted_date       TIMESTAMP      NOT NULL,
+    name               VARCHAR(254)   NOT NULL,
+    price              DECIMAL(19, 2) NOT NULL,
+    stock_quantity     INTEGER,
+    user_account_id    BIGINT,
+    archived_date      TIMESTAMP      NOT NULL,
+    CONSTRAINT pk_product_archive PRIMARY KEY (id)
+);
+
+CREATE TABLE stock_movement_archive (
+    id                 BIGINT      NOT NULL,
+    created_date       TIMESTAMP,
+    last_modified_date TIMESTAMP,
+    operation          VARCHAR(10) NOT NULL,
+    quantity           INTEGER     NOT NULL,
+    product_id         BIGINT      NOT NULL,
+    user_account_id    BIGINT,
+    archived_date      TIMESTAMP   NOT NULL,
+    CONSTRAINT pk_stock_movement_archive PRIMARY KEY (id)
+);
+
+-- the archiver picks the oldest soft deleted Products first
+CREATE INDEX ix_product_deleted_date ON product (deleted_date);
+
+-- the archived Products of a UserAccount, read page by page in id order
+CREATE INDEX ix_product_archive_user_account_id ON product_archive (user_account_id, id);
+
+CREATE INDEX ix_stock_movement_archive_product_id ON stock_movement_archive (product_id, id);
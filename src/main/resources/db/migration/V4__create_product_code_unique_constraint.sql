@@ -0,0 +1,7 @@
+-- The code of a Product is unique among the live Products of its UserAccount, a soft deleted code can be reused.
+-- H2 has no partial indexes, so the constraint is put on a column computed from the code, which becomes NULL once the
+-- Product is soft deleted, and NULLs never collide in a unique constraint. On PostgreSQL the same rule would be:
+-- CREATE UNIQUE INDEX ux_product_user_account_live_code ON product (user_account_id, code) WHERE deleted_date IS NULL;
+ALTER TABLE product ADD COLUMN live_code VARCHAR(50) AS (CASE WHEN deleted_date IS NULL THEN code END);
+
+ALTER TABLE product ADD CONSTRAINT ux_product_user_account_live_code UNIQUE (user_account_id, live_code);
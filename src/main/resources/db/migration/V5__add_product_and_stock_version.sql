@@ -0,0 +1,5 @@
+-- Optimistic locking of Product and Stock: Hibernate only updates a row whose version did not change since it was
+-- loaded, and every UPDATE, including the bulk ones which bypass the entities, increments the version.
+ALTER TABLE product ADD COLUMN version BIGINT DEFAULT 0 NOT NULL;
+
+ALTER TABLE stock ADD COLUMN version BIGINT DEFAULT 0 NOT NULL;
@@ -0,0 +1,2 @@
+-- the archiver of the StockMovements picks the movements older than the retention first
+CREATE INDEX ix_stock_movement_created_date ON stock_movement (created_date);
@@ -0,0 +1,148 @@
+package com.netpos.desafionetpos.controller;
+
+import com.netpos.desafionetpos.DesafioNetposApplication;
+import com.netpos.desafionetpos.dto.ProductImportResultDTO;
+import com.netpos.desafionetpos.dto.ProductDTO;
+import com.netpos.desafionetpos.dto.StockDTO;
+import com.netpos.desafionetpos.entity.UserAccount;
+import com.netpos.desafionetpos.repository.UserAccountRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+import javax.persistence.EntityManagerFactory;
+import java.math.BigDecimal;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Integration tests for the {@link ProductController} REST controller running with {@code application.execution.mode=async}.
+ */
+@SpringBootTest(classes = {DesafioNetposApplication.class}, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"application.execution.mode=async", "spring.datasource.url=jdbc:h2:mem:async-execution",
+                "spring.mvc.async.request-timeout=" + ProductControllerAsyncExecutionTest.CONTAINER_TIMEOUT_MILLIS + "ms",
+                "application.execution.request-timeout=10s"})
+@Import(ProductControllerAsyncExecutionTest.SlowControllerConfiguration.class)
+class ProductControllerAsyncExecutionTest {
+
+    static final long CONTAINER_TIMEOUT_MILLIS = 200;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private UserAccountRepository userAccountRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void productRequestsAreProcessedOnTheJdbcPool() {
+        UserAccount userAccount = userAccountRepository.saveAndFlush(UserAccountControllerTest.createEntity());
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("user_id", userAccount.getId().toString());
+        double tasksBefore = jdbcPoolTasks();
+
+        ProductDTO productDTO = new ProductDTO();
+        productDTO.setName("Apple iPhone 12");
+        productDTO.setCode("123456");
+        productDTO.setPrice(BigDecimal.valueOf(8000));
+        productDTO.setStock(new StockDTO().quantity(500));
+        ResponseEntity<ProductDTO> created = restTemplate.exchange("/products", HttpMethod.POST,
+                new HttpEntity<>(productDTO, headers), ProductDTO.class);
+        assertThat(created.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+
+        ResponseEntity<ProductDTO> found = restTemplate.exchange("/products/" + created.getBody().getId(), HttpMethod.GET,
+                new HttpEntity<>(headers), ProductDTO.class);
+        assertThat(found.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(found.getBody().getName()).isEqualTo("Apple iPhone 12");
+
+        ResponseEntity<ProductDTO[]> list = restTemplate.exchange("/products?filter=123", HttpMethod.GET,
+                new HttpEntity<>(headers), ProductDTO[].class);
+        assertThat(list.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(list.getBody()).extracting(ProductDTO::getCode).containsExactly("123456");
+
+        assertThat(jdbcPoolTasks()).isGreaterThanOrEqualTo(tasksBefore + 3);
+    }
+
+    @Test
+    void requestLongerThanTheContainerTimeoutUsesTheConfiguredTimeout() {
+        ResponseEntity<Map> response = restTemplate.getForEntity("/slow", Map.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat((String) response.getBody().get("thread")).startsWith("jdbc-");
+        assertThat(response.getBody().get("entityManagerBound")).isEqualTo(true);
+    }
+
+    @Test
+    void importIsProcessedOnTheRequestThread() {
+        UserAccount userAccount = UserAccountControllerTest.createEntity();
+        userAccount.setEmail("async.import@netpos.com");
+        userAccountRepository.saveAndFlush(userAccount);
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("user_id", userAccount.getId().toString());
+        headers.setContentType(MediaType.parseMediaType(ProductController.TEXT_CSV_VALUE));
+        double tasksBefore = jdbcPoolTasks();
+
+        ResponseEntity<ProductImportResultDTO> imported = restTemplate.exchange("/products/import", HttpMethod.POST,
+                new HttpEntity<>("code,name,price,quantity\nASYNC1,Async,10.00,5\n", headers), ProductImportResultDTO.class);
+
+        assertThat(imported.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(imported.getBody().getImported()).isEqualTo(1);
+        assertThat(jdbcPoolTasks()).isEqualTo(tasksBefore);
+    }
+
+    /*
+     * A task which has sent its response is either still active or already completed, never neither.
+     */
+    private double jdbcPoolTasks() {
+        return meterRegistry.get("executor.completed").tag("name", "jdbc").functionCounter().count()
+                + meterRegistry.get("executor.active").tag("name", "jdbc").gauge().value();
+    }
+
+    @TestConfiguration
+    static class SlowControllerConfiguration {
+
+        @Bean
+        SlowController slowController(EntityManagerFactory entityManagerFactory) {
+            return new SlowController(entityManagerFactory);
+        }
+    }
+
+    /*
+     * Registered as a bean of the controller package, so it runs on the JDBC pool, for longer than the container timeout.
+     */
+    @RequestMapping("/slow")
+    @ResponseBody
+    static class SlowController {
+
+        private final EntityManagerFactory entityManagerFactory;
+
+        SlowController(EntityManagerFactory entityManagerFactory) {
+            this.entityManagerFactory = entityManagerFactory;
+        }
+
+        @GetMapping
+        Map<String, Object> slow() throws InterruptedException {
+            Thread.sleep(CONTAINER_TIMEOUT_MILLIS * 5);
+            return Map.of("thread", Thread.currentThread().getName(),
+                    "entityManagerBound", TransactionSynchronizationManager.hasResource(entityManagerFactory));
+        }
+    }
+}
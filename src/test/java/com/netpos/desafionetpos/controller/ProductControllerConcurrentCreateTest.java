@@ -0,0 +1,88 @@
+package com.netpos.desafionetpos.controller;
+
+import com.netpos.desafionetpos.DesafioNetposApplication;
+import com.netpos.desafionetpos.dto.ProductDTO;
+import com.netpos.desafionetpos.dto.StockDTO;
+import com.netpos.desafionetpos.entity.UserAccount;
+import com.netpos.desafionetpos.repository.UserAccountRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Creates the same Product from several clients at once, each request committing on its own,
+ * on a database private to this test.
+ */
+@SpringBootTest(classes = {DesafioNetposApplication.class}, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"spring.datasource.url=jdbc:h2:mem:concurrent-create", "application.r2dbc.url=r2dbc:h2:mem:///concurrent-create"})
+class ProductControllerConcurrentCreateTest {
+
+    private static final int CONCURRENT_REQUESTS = 16;
+
+    private static final String PRODUCT_CODE = "123456";
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private UserAccountRepository userAccountRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void concurrentCreatesWithSameCodeInsertOneProduct() throws Exception {
+        UserAccount userAccount = userAccountRepository.saveAndFlush(UserAccountControllerTest.createEntity());
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("user_id", userAccount.getId().toString());
+        ProductDTO productDTO = new ProductDTO();
+        productDTO.setName("Apple iPhone 12");
+        productDTO.setCode(PRODUCT_CODE);
+        productDTO.setPrice(BigDecimal.valueOf(8000));
+        productDTO.setStock(new StockDTO().quantity(500));
+        HttpEntity<ProductDTO> request = new HttpEntity<>(productDTO, headers);
+
+        ExecutorService executor = Executors.newFixedThreadPool(CONCURRENT_REQUESTS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<HttpStatus>> responses = new ArrayList<>();
+        try {
+            for (int i = 0; i < CONCURRENT_REQUESTS; i++) {
+                responses.add(executor.submit(() -> {
+                    start.await();
+                    return restTemplate.exchange("/products", HttpMethod.POST, request, String.class).getStatusCode();
+                }));
+            }
+            start.countDown();
+
+            List<HttpStatus> statuses = new ArrayList<>();
+            for (Future<HttpStatus> response : responses) {
+                statuses.add(response.get());
+            }
+            assertThat(statuses).containsOnly(HttpStatus.CREATED, HttpStatus.UNPROCESSABLE_ENTITY);
+            assertThat(statuses).filteredOn(HttpStatus.CREATED::equals).hasSize(1);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM product WHERE user_account_id = ? AND code = ?",
+                Integer.class, userAccount.getId(), PRODUCT_CODE)).isEqualTo(1);
+        // the Stocks of the rejected Products were rolled back with them
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM stock", Integer.class)).isEqualTo(1);
+    }
+}
@@ -0,0 +1,159 @@
+package com.netpos.desafionetpos.controller;
+
+import com.netpos.desafionetpos.DesafioNetposApplication;
+import com.netpos.desafionetpos.dto.vm.AlterStockVM;
+import com.netpos.desafionetpos.dto.vm.ProductEditVM;
+import com.netpos.desafionetpos.entity.Product;
+import com.netpos.desafionetpos.entity.UserAccount;
+import com.netpos.desafionetpos.entity.enumeration.Operation;
+import com.netpos.desafionetpos.repository.ProductRepository;
+import com.netpos.desafionetpos.repository.UserAccountRepository;
+import com.netpos.desafionetpos.service.ProductService;
+import com.netpos.desafionetpos.service.StockMovementRecorder;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Changes the same Product from several clients at once, each request committing on its own,
+ * on a database private to this test.
+ */
+@SpringBootTest(classes = {DesafioNetposApplication.class}, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"spring.datasource.url=jdbc:h2:mem:concurrent-update", "application.r2dbc.url=r2dbc:h2:mem:///concurrent-update"})
+class ProductControllerConcurrentUpdateTest {
+
+    private static final int CONCURRENT_CLIENTS = 64;
+
+    private static final int OPERATIONS_PER_CLIENT = 10;
+
+    private final Logger log = LoggerFactory.getLogger(ProductControllerConcurrentUpdateTest.class);
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private UserAccountRepository userAccountRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private StockMovementRecorder stockMovementRecorder;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Product insertProductWithUserAccount(String email) {
+        UserAccount userAccount = UserAccountControllerTest.createEntity();
+        userAccount.setEmail(email);
+        userAccountRepository.saveAndFlush(userAccount);
+        Product product = ProductControllerTest.createEntity();
+        product.setUserAccount(userAccount);
+        return productRepository.saveAndFlush(product);
+    }
+
+    @Test
+    void concurrentStockChangesLoseNoUpdates() throws Exception {
+        Product product = insertProductWithUserAccount("stock-stress@netpos.com");
+        int initialQuantity = product.getStock().getQuantity();
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("user_id", product.getUserAccount().getId().toString());
+        String url = "/products/" + product.getId() + "/stock";
+
+        ExecutorService executor = Executors.newFixedThreadPool(CONCURRENT_CLIENTS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<List<HttpStatus>>> clients = new ArrayList<>();
+        long elapsedNanos;
+        try {
+            for (int i = 0; i < CONCURRENT_CLIENTS; i++) {
+                // Each client adds one unit more than it removes
+                clients.add(executor.submit(() -> {
+                    start.await();
+                    List<HttpStatus> statuses = new ArrayList<>();
+                    for (int operation = 0; operation < OPERATIONS_PER_CLIENT; operation++) {
+                        AlterStockVM alterStockVM = new AlterStockVM();
+                        alterStockVM.setOperation(operation % 2 == 0 ? Operation.ADD : Operation.SUB);
+                        alterStockVM.setQuantity(operation % 2 == 0 ? 2 : 1);
+                        statuses.add(restTemplate.exchange(url, HttpMethod.POST, new HttpEntity<>(alterStockVM, headers), String.class).getStatusCode());
+                    }
+                    return statuses;
+                }));
+            }
+            long startNanos = System.nanoTime();
+            start.countDown();
+
+            List<HttpStatus> statuses = new ArrayList<>();
+            for (Future<List<HttpStatus>> client : clients) {
+                statuses.addAll(client.get());
+            }
+            elapsedNanos = System.nanoTime() - startNanos;
+            assertThat(statuses).hasSize(CONCURRENT_CLIENTS * OPERATIONS_PER_CLIENT).containsOnly(HttpStatus.OK);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        int operations = CONCURRENT_CLIENTS * OPERATIONS_PER_CLIENT;
+        log.info("{} Stock changes of one Product from {} clients in {} ms, {} operations/s", operations, CONCURRENT_CLIENTS,
+                elapsedNanos / 1_000_000, operations * 1_000_000_000L / elapsedNanos);
+
+        assertThat(jdbcTemplate.queryForObject("SELECT quantity FROM stock WHERE id = ?", Integer.class, product.getStock().getId()))
+                .isEqualTo(initialQuantity + operations / 2);
+        assertThat(jdbcTemplate.queryForObject("SELECT version FROM stock WHERE id = ?", Long.class, product.getStock().getId()))
+                .isEqualTo(product.getStock().getVersion() + operations);
+        stockMovementRecorder.flush();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM stock_movement WHERE stock_id = ?", Integer.class, product.getStock().getId()))
+                .isEqualTo(operations);
+    }
+
+    @Test
+    void editOfProductChangedConcurrentlyIsRejected() {
+        Product product = insertProductWithUserAccount("stale-edit@netpos.com");
+        ProductEditVM productEditVM = new ProductEditVM();
+        productEditVM.setName("Apple iPhone X");
+        productEditVM.setPrice(BigDecimal.valueOf(6000));
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        TransactionTemplate concurrentTransactionTemplate = new TransactionTemplate(transactionManager);
+        concurrentTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        assertThatThrownBy(() -> transactionTemplate.executeWithoutResult(status -> {
+            productService.edit(product.getId(), product.getUserAccount().getId(), productEditVM);
+            // Another request changes the price after the edit loaded the Product and before it is written
+            concurrentTransactionTemplate.executeWithoutResult(concurrentStatus ->
+                    productRepository.patch(product.getId(), product.getUserAccount().getId(), null, BigDecimal.ONE));
+        })).isInstanceOf(ObjectOptimisticLockingFailureException.class);
+
+        assertThat(jdbcTemplate.queryForObject("SELECT name FROM product WHERE id = ?", String.class, product.getId()))
+                .isEqualTo(product.getName());
+        assertThat(jdbcTemplate.queryForObject("SELECT price FROM product WHERE id = ?", BigDecimal.class, product.getId()))
+                .isEqualByComparingTo(BigDecimal.ONE);
+    }
+}
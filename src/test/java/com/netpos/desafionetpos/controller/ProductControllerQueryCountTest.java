@@ -0,0 +1,234 @@
+package com.netpos.desafionetpos.controller;
+
+import com.netpos.desafionetpos.DesafioNetposApplication;
+import com.netpos.desafionetpos.dto.vm.AlterStockVM;
+import com.netpos.desafionetpos.dto.vm.ProductEditVM;
+import com.netpos.desafionetpos.dto.vm.ProductPatchVM;
+import com.netpos.desafionetpos.entity.Product;
+import com.netpos.desafionetpos.entity.UserAccount;
+import com.netpos.desafionetpos.entity.enumeration.Operation;
+import com.netpos.desafionetpos.repository.ProductRepository;
+import com.netpos.desafionetpos.repository.UserAccountRepository;
+import com.netpos.desafionetpos.util.TestUtil;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Asserts the number of SQL statements issued by the {@link ProductController} endpoints,
+ * so that an N+1 regression on the Product associations fails the build.
+ */
+@SpringBootTest(classes = {DesafioNetposApplication.class})
+@AutoConfigureMockMvc
+class ProductControllerQueryCountTest {
+
+    private static final String CONTROLLER_BASE_URL = "/products";
+
+    private static final int PRODUCT_COUNT = 5;
+
+    /**
+     * The user_id header is checked against the database while the in-memory registry
+     * is cold, which is always the case inside a rolled back test transaction.
+     */
+    private static final long USER_ACCOUNT_CHECK_STATEMENTS = 1;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserAccountRepository userAccountRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private MockMvc restAccountMockMvc;
+
+    private Statistics statistics;
+
+    private UserAccount userAccount;
+
+    private final List<Product> products = new ArrayList<>();
+
+    @BeforeEach
+    public void initTest() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        statistics.setStatisticsEnabled(false);
+    }
+
+    private void insertProductsWithUserAccount() {
+        userAccount = UserAccountControllerTest.createEntity();
+        userAccountRepository.saveAndFlush(userAccount);
+        for (int i = 0; i < PRODUCT_COUNT; i++) {
+            Product product = ProductControllerTest.createEntity();
+            product.setCode(ProductControllerTest.createEntity().getCode() + i);
+            product.setUserAccount(userAccount);
+            products.add(productRepository.saveAndFlush(product));
+        }
+        resetPersistenceContext();
+    }
+
+    private void resetPersistenceContext() {
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+    }
+
+    private long statementsIssued() {
+        entityManager.flush();
+        return statistics.getPrepareStatementCount();
+    }
+
+    @Test
+    @Transactional
+    void getAllProductsIssuesSingleQueryWithoutLoadingEntities() throws Exception {
+        insertProductsWithUserAccount();
+
+        // the first filtered request loads the search index of the UserAccount
+        restAccountMockMvc
+                .perform(get(CONTROLLER_BASE_URL + "?filter=Apple&order=name,asc")
+                        .header("user_id", userAccount.getId()))
+                .andExpect(status().isOk());
+        resetPersistenceContext();
+
+        restAccountMockMvc
+                .perform(get(CONTROLLER_BASE_URL + "?filter=Apple&order=name,asc")
+                        .header("user_id", userAccount.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(PRODUCT_COUNT));
+
+        assertThat(statementsIssued()).isEqualTo(USER_ACCOUNT_CHECK_STATEMENTS + 1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    @Transactional
+    void getProductsPageIssuesSingleQuery() throws Exception {
+        insertProductsWithUserAccount();
+
+        restAccountMockMvc
+                .perform(get(CONTROLLER_BASE_URL + "?limit=" + PRODUCT_COUNT + "&order=name,asc")
+                        .header("user_id", userAccount.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(PRODUCT_COUNT));
+
+        assertThat(statementsIssued()).isEqualTo(USER_ACCOUNT_CHECK_STATEMENTS + 1);
+    }
+
+    @Test
+    @Transactional
+    void getOneProductIssuesSingleQueryWithoutLoadingEntities() throws Exception {
+        insertProductsWithUserAccount();
+
+        restAccountMockMvc
+                .perform(get(CONTROLLER_BASE_URL + "/" + products.get(0).getId())
+                        .header("user_id", userAccount.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.stock.quantity").isNumber());
+
+        assertThat(statementsIssued()).isEqualTo(USER_ACCOUNT_CHECK_STATEMENTS + 1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    @Transactional
+    void editProductDoesNotReloadAssociations() throws Exception {
+        insertProductsWithUserAccount();
+
+        ProductEditVM productEditVM = new ProductEditVM();
+        productEditVM.setName("Apple iPhone X");
+        productEditVM.setPrice(BigDecimal.valueOf(6000));
+
+        restAccountMockMvc
+                .perform(put(CONTROLLER_BASE_URL + "/" + products.get(0).getId())
+                        .header("user_id", userAccount.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(TestUtil.convertObjectToJsonBytes(productEditVM)))
+                .andExpect(status().isOk());
+
+        // product with its associations and the product UPDATE, the Stock row is left untouched
+        assertThat(statementsIssued()).isEqualTo(USER_ACCOUNT_CHECK_STATEMENTS + 2);
+    }
+
+    @Test
+    @Transactional
+    void patchProductIssuesSingleUpdate() throws Exception {
+        insertProductsWithUserAccount();
+
+        ProductPatchVM productPatchVM = new ProductPatchVM();
+        productPatchVM.setPrice(BigDecimal.valueOf(6000));
+
+        restAccountMockMvc
+                .perform(patch(CONTROLLER_BASE_URL + "/" + products.get(0).getId())
+                        .header("user_id", userAccount.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(TestUtil.convertObjectToJsonBytes(productPatchVM)))
+                .andExpect(status().isNoContent());
+
+        // only the product UPDATE, the Product is never loaded
+        assertThat(statementsIssued()).isEqualTo(USER_ACCOUNT_CHECK_STATEMENTS + 1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    @Transactional
+    void deleteProductIssuesSingleUpdate() throws Exception {
+        insertProductsWithUserAccount();
+
+        restAccountMockMvc
+                .perform(delete(CONTROLLER_BASE_URL + "/" + products.get(0).getId())
+                        .header("user_id", userAccount.getId()))
+                .andExpect(status().isNoContent());
+
+        // only the soft delete UPDATE, which checks the owner itself
+        assertThat(statementsIssued()).isEqualTo(USER_ACCOUNT_CHECK_STATEMENTS + 1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    @Transactional
+    void rejectedStockChangeIssuesSingleStatement() throws Exception {
+        insertProductsWithUserAccount();
+
+        AlterStockVM alterStockVM = new AlterStockVM();
+        alterStockVM.setOperation(Operation.SUB);
+        alterStockVM.setQuantity(products.get(0).getStock().getQuantity() + 1);
+
+        restAccountMockMvc
+                .perform(post(CONTROLLER_BASE_URL + "/" + products.get(0).getId() + "/stock")
+                        .header("user_id", userAccount.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(TestUtil.convertObjectToJsonBytes(alterStockVM)))
+                .andExpect(status().isUnprocessableEntity());
+
+        // the UPDATE rejected by the CHECK constraint runs directly on the JDBC connection, no ownership query follows it
+        assertThat(statementsIssued()).isEqualTo(USER_ACCOUNT_CHECK_STATEMENTS);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+}
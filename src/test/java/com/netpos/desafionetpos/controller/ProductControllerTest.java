@@ -1,38 +1,60 @@
 package com.netpos.desafionetpos.controller;
 
+import com.jayway.jsonpath.JsonPath;
 import com.netpos.desafionetpos.DesafioNetposApplication;
+import com.netpos.desafionetpos.aop.metrics.MethodTimingAspect;
+import com.netpos.desafionetpos.config.Constants;
 import com.netpos.desafionetpos.dto.ProductDTO;
 import com.netpos.desafionetpos.dto.StockDTO;
+import com.netpos.desafionetpos.dto.vm.AlterStockBatchVM;
+import com.netpos.desafionetpos.dto.vm.AlterStockItemVM;
 import com.netpos.desafionetpos.dto.vm.AlterStockVM;
 import com.netpos.desafionetpos.dto.vm.ProductEditVM;
+import com.netpos.desafionetpos.dto.vm.ProductPatchVM;
 import com.netpos.desafionetpos.entity.Product;
 import com.netpos.desafionetpos.entity.Stock;
 import com.netpos.desafionetpos.entity.UserAccount;
 import com.netpos.desafionetpos.entity.enumeration.Operation;
+import com.netpos.desafionetpos.entity.enumeration.StockOperationStatus;
 import com.netpos.desafionetpos.repository.ProductRepository;
 import com.netpos.desafionetpos.repository.UserAccountRepository;
+import com.netpos.desafionetpos.service.StockMetrics;
+import com.netpos.desafionetpos.service.StockMovementRecorder;
 import com.netpos.desafionetpos.util.TestUtil;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
 
+import javax.persistence.EntityManager;
+import java.io.ByteArrayInputStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
+import java.util.zip.GZIPInputStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.startsWith;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 /**
  * Integration tests for the {@link ProductController} REST controller.
  */
-@SpringBootTest(classes = {DesafioNetposApplication.class})
+// The queued StockMovements are written by the tests themselves, in their transaction
+@SpringBootTest(classes = {DesafioNetposApplication.class}, properties = "application.stock-movement.flush-interval=3600000")
 @AutoConfigureMockMvc
 class ProductControllerTest {
 
@@ -55,6 +77,15 @@ class ProductControllerTest {
     @Autowired
     private MockMvc restAccountMockMvc;
 
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private StockMovementRecorder stockMovementRecorder;
+
     private Product product;
 
     public static Product createEntity() {
@@ -79,6 +110,25 @@ class ProductControllerTest {
         productRepository.saveAndFlush(product);
     }
 
+    /**
+     * The test transaction is rolled back, so the movements the requests queue on commit are queued here,
+     * then written in the test transaction.
+     */
+    private void writeStockMovements() {
+        TransactionSynchronizationUtils.triggerAfterCommit();
+        stockMovementRecorder.flush();
+    }
+
+    private Product insertOtherProduct() {
+        Product otherProduct = new Product();
+        otherProduct.setName("Samsung Galaxy S20");
+        otherProduct.setCode("654321");
+        otherProduct.setPrice(DEFAULT_PRODUCT_PRICE);
+        otherProduct.setStock(new Stock().quantity(DEFAULT_PRODUCT_STOCK_QUANTITY));
+        otherProduct.setUserAccount(product.getUserAccount());
+        return productRepository.saveAndFlush(otherProduct);
+    }
+
     @Test
     @Transactional
     void createProductIsSuccessful() throws Exception {
@@ -157,6 +207,62 @@ class ProductControllerTest {
         assertThat(databaseSizeAfterInsert).isEqualTo(databaseSizeBeforeInsert).isEqualTo(1);
     }
 
+    @Test
+    @Transactional
+    void createProductRetriedWithSameIdempotencyKeyReturnsFirstProduct() throws Exception {
+        UserAccount userAccount = UserAccountControllerTest.createEntity();
+        userAccountRepository.save(userAccount);
+
+        ProductDTO productDTO = new ProductDTO();
+        productDTO.setCode(DEFAULT_PRODUCT_CODE);
+        productDTO.setName(DEFAULT_PRODUCT_NAME);
+        productDTO.setPrice(DEFAULT_PRODUCT_PRICE);
+        productDTO.setStock(new StockDTO().quantity(DEFAULT_PRODUCT_STOCK_QUANTITY));
+
+        List<Integer> createdIds = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            String response = restAccountMockMvc
+                    .perform(post(CONTROLLER_BASE_URL)
+                            .header("user_id", userAccount.getId())
+                            .header(ProductController.IDEMPOTENCY_KEY_HEADER, "terminal-1-create-1")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(TestUtil.convertObjectToJsonBytes(productDTO)))
+                    .andExpect(status().isCreated())
+                    .andReturn().getResponse().getContentAsString();
+            createdIds.add(JsonPath.read(response, "$.id"));
+        }
+
+        assertThat(createdIds.get(1)).isEqualTo(createdIds.get(0));
+        assertThat(productRepository.findAll()).hasSize(1);
+    }
+
+    @Test
+    @Transactional
+    void createProductWithCodeOfDeletedProductIsSuccessful() throws Exception {
+        insertProductWithUserAccount();
+
+        restAccountMockMvc
+                .perform(delete(CONTROLLER_BASE_URL + "/" + product.getId())
+                        .header("user_id", product.getUserAccount().getId()))
+                .andExpect(status().isNoContent());
+
+        ProductDTO productDTO = new ProductDTO();
+        productDTO.setCode(DEFAULT_PRODUCT_CODE);
+        productDTO.setName(DEFAULT_PRODUCT_NAME);
+        productDTO.setPrice(DEFAULT_PRODUCT_PRICE);
+        productDTO.setStock(new StockDTO().quantity(DEFAULT_PRODUCT_STOCK_QUANTITY));
+
+        restAccountMockMvc
+                .perform(post(CONTROLLER_BASE_URL)
+                        .header("user_id", product.getUserAccount().getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(TestUtil.convertObjectToJsonBytes(productDTO)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.code").value(DEFAULT_PRODUCT_CODE));
+
+        assertThat(productRepository.findAll()).hasSize(1);
+    }
+
     @Test
     @Transactional
     void createProductWithNonExistentUserAccountShouldBeBadRequest() throws Exception {
@@ -216,6 +322,40 @@ class ProductControllerTest {
                 .andExpect(jsonPath("$.price").value(EDIT_PRODUCT_PRICE));
     }
 
+    @Test
+    @Transactional
+    void editProductWithStaleVersionShouldReturnConflict() throws Exception {
+        insertProductWithUserAccount();
+        Long version = ((Number) JsonPath.read(restAccountMockMvc
+                .perform(get(CONTROLLER_BASE_URL + "/" + product.getId())
+                        .header("user_id", product.getUserAccount().getId()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString(), "$.version")).longValue();
+
+        ProductEditVM productEditVM = new ProductEditVM();
+        productEditVM.setName(EDIT_PRODUCT_NAME);
+        productEditVM.setPrice(EDIT_PRODUCT_PRICE);
+        productEditVM.setVersion(version);
+        restAccountMockMvc
+                .perform(put(CONTROLLER_BASE_URL + "/" + product.getId())
+                        .header("user_id", product.getUserAccount().getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(TestUtil.convertObjectToJsonBytes(productEditVM)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.version").value(version + 1));
+
+        productEditVM.setName(DEFAULT_PRODUCT_NAME);
+        restAccountMockMvc
+                .perform(put(CONTROLLER_BASE_URL + "/" + product.getId())
+                        .header("user_id", product.getUserAccount().getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(TestUtil.convertObjectToJsonBytes(productEditVM)))
+                .andExpect(status().isConflict());
+
+        assertThat(productRepository.findById(product.getId())).hasValueSatisfying(edited ->
+                assertThat(edited.getName()).isEqualTo(EDIT_PRODUCT_NAME));
+    }
+
     @Test
     @Transactional
     void editNonExistentProductShouldReturnNotFound() throws Exception {
@@ -233,6 +373,61 @@ class ProductControllerTest {
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    @Transactional
+    void patchProductNameIsSuccessful() throws Exception {
+        insertProductWithUserAccount();
+
+        ProductPatchVM productPatchVM = new ProductPatchVM();
+        productPatchVM.setName(EDIT_PRODUCT_NAME);
+
+        restAccountMockMvc
+                .perform(patch(CONTROLLER_BASE_URL + "/" + product.getId())
+                        .header("user_id", product.getUserAccount().getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(TestUtil.convertObjectToJsonBytes(productPatchVM)))
+                .andExpect(status().isNoContent());
+
+        restAccountMockMvc
+                .perform(get(CONTROLLER_BASE_URL + "?filter=" + EDIT_PRODUCT_NAME)
+                        .header("user_id", product.getUserAccount().getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].id").value(contains(product.getId().intValue())))
+                .andExpect(jsonPath("$[0].name").value(EDIT_PRODUCT_NAME))
+                .andExpect(jsonPath("$[0].price").value(DEFAULT_PRODUCT_PRICE.doubleValue()));
+    }
+
+    @Test
+    @Transactional
+    void patchDeletedProductShouldReturnNotFound() throws Exception {
+        insertProductWithUserAccount();
+        productRepository.delete(product);
+        productRepository.flush();
+
+        ProductPatchVM productPatchVM = new ProductPatchVM();
+        productPatchVM.setPrice(EDIT_PRODUCT_PRICE);
+
+        restAccountMockMvc
+                .perform(patch(CONTROLLER_BASE_URL + "/" + product.getId())
+                        .header("user_id", product.getUserAccount().getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(TestUtil.convertObjectToJsonBytes(productPatchVM)))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @Transactional
+    void patchProductWithoutFieldsShouldReturnBadRequest() throws Exception {
+        insertProductWithUserAccount();
+
+        restAccountMockMvc
+                .perform(patch(CONTROLLER_BASE_URL + "/" + product.getId())
+                        .header("user_id", product.getUserAccount().getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(TestUtil.convertObjectToJsonBytes(new ProductPatchVM())))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     @Transactional
     void getOneProductDetailsByIdIsSuccessful() throws Exception {
@@ -246,7 +441,7 @@ class ProductControllerTest {
                 .andExpect(jsonPath("$.id").value(product.getId()))
                 .andExpect(jsonPath("$.name").value(DEFAULT_PRODUCT_NAME))
                 .andExpect(jsonPath("$.code").value(DEFAULT_PRODUCT_CODE))
-                .andExpect(jsonPath("$.price").value(DEFAULT_PRODUCT_PRICE))
+                .andExpect(jsonPath("$.price").value(DEFAULT_PRODUCT_PRICE.doubleValue()))
                 .andExpect(jsonPath("$.stock.quantity").value(DEFAULT_PRODUCT_STOCK_QUANTITY));
     }
 
@@ -267,6 +462,107 @@ class ProductControllerTest {
         assertThat(databaseSizeAfterDelete).isEqualTo(0);
     }
 
+    @Test
+    @Transactional
+    void softDeleteProductOfAnotherUserAccountShouldReturnNotFound() throws Exception {
+        insertProductWithUserAccount();
+        UserAccount otherUserAccount = UserAccountControllerTest.createEntity();
+        otherUserAccount.setEmail("other@netpos.com");
+        userAccountRepository.saveAndFlush(otherUserAccount);
+
+        restAccountMockMvc
+                .perform(delete(CONTROLLER_BASE_URL + "/" + product.getId())
+                        .header("user_id", otherUserAccount.getId()))
+                .andExpect(status().isNotFound());
+
+        assertThat(productRepository.findAll()).hasSize(1);
+    }
+
+    @Test
+    @Transactional
+    void softDeleteProductsByIdsIsSuccessful() throws Exception {
+        insertProductWithUserAccount();
+        Product otherProduct = insertOtherProduct();
+
+        restAccountMockMvc
+                .perform(delete(CONTROLLER_BASE_URL)
+                        .param("ids", product.getId().toString(), otherProduct.getId().toString(), "123")
+                        .header("user_id", product.getUserAccount().getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.deleted").value(2));
+
+        assertThat(productRepository.findAll()).isEmpty();
+    }
+
+    @Test
+    @Transactional
+    void softDeleteProductsByFilterIsSuccessful() throws Exception {
+        insertProductWithUserAccount();
+        Product otherProduct = insertOtherProduct();
+
+        restAccountMockMvc
+                .perform(delete(CONTROLLER_BASE_URL)
+                        .param("filter", "iPhone")
+                        .header("user_id", product.getUserAccount().getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.deleted").value(1));
+
+        assertThat(productRepository.findAll()).extracting(Product::getId).containsExactly(otherProduct.getId());
+    }
+
+    @Test
+    @Transactional
+    void softDeleteProductsByFilterEvictsTheCachedProducts() throws Exception {
+        insertProductWithUserAccount();
+        restAccountMockMvc
+                .perform(get(CONTROLLER_BASE_URL + "/" + product.getId())
+                        .header("user_id", product.getUserAccount().getId()))
+                .andExpect(status().isOk());
+        // The cache is written on commit, which the test transaction never reaches
+        TransactionSynchronizationUtils.triggerAfterCommit();
+
+        restAccountMockMvc
+                .perform(delete(CONTROLLER_BASE_URL)
+                        .param("filter", "iPhone")
+                        .header("user_id", product.getUserAccount().getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.deleted").value(1));
+        // Runs the put again, then the evictions registered after it
+        TransactionSynchronizationUtils.triggerAfterCommit();
+
+        restAccountMockMvc
+                .perform(get(CONTROLLER_BASE_URL + "/" + product.getId())
+                        .header("user_id", product.getUserAccount().getId()))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @Transactional
+    void softDeleteProductsWithBlankFilterShouldReturnBadRequest() throws Exception {
+        insertProductWithUserAccount();
+
+        restAccountMockMvc
+                .perform(delete(CONTROLLER_BASE_URL)
+                        .param("filter", " ")
+                        .header("user_id", product.getUserAccount().getId()))
+                .andExpect(status().isBadRequest());
+
+        assertThat(productRepository.findAll()).hasSize(1);
+    }
+
+    @Test
+    @Transactional
+    void softDeleteProductsWithoutIdsOrFilterShouldReturnBadRequest() throws Exception {
+        insertProductWithUserAccount();
+
+        restAccountMockMvc
+                .perform(delete(CONTROLLER_BASE_URL)
+                        .header("user_id", product.getUserAccount().getId()))
+                .andExpect(status().isBadRequest());
+
+        assertThat(productRepository.findAll()).hasSize(1);
+    }
+
     @Test
     @Transactional
     void addProductStockIsSuccessful() throws Exception {
@@ -281,13 +577,70 @@ class ProductControllerTest {
                         .header("user_id", product.getUserAccount().getId())
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(TestUtil.convertObjectToJsonBytes(alterStockVM)))
-                .andExpect(status().isNoContent());
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value(StockOperationStatus.APPLIED.name()))
+                .andExpect(jsonPath("$.quantity").value(DEFAULT_PRODUCT_STOCK_QUANTITY + 500));
 
         Optional<Product> productAfterEdit = productRepository.findById(product.getId());
         assertThat(productAfterEdit).isNotEmpty();
         productAfterEdit.map(product1 -> assertThat(product1.getStock().getQuantity()).isEqualTo(DEFAULT_PRODUCT_STOCK_QUANTITY + 500));
     }
 
+    @Test
+    @Transactional
+    void addProductStockRetriedWithSameIdempotencyKeyIsAppliedOnce() throws Exception {
+        insertProductWithUserAccount();
+
+        AlterStockVM alterStockVM = new AlterStockVM();
+        alterStockVM.setOperation(Operation.ADD);
+        alterStockVM.setQuantity(100);
+
+        for (int i = 0; i < 2; i++) {
+            restAccountMockMvc
+                    .perform(post(CONTROLLER_BASE_URL + "/" + product.getId() + "/stock")
+                            .header("user_id", product.getUserAccount().getId())
+                            .header(ProductController.IDEMPOTENCY_KEY_HEADER, "terminal-1-operation-1")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(TestUtil.convertObjectToJsonBytes(alterStockVM)))
+                    .andExpect(status().isOk());
+        }
+
+        Optional<Product> productAfterEdit = productRepository.findById(product.getId());
+        assertThat(productAfterEdit).isNotEmpty();
+        productAfterEdit.map(product1 -> assertThat(product1.getStock().getQuantity()).isEqualTo(DEFAULT_PRODUCT_STOCK_QUANTITY + 100));
+    }
+
+    @Test
+    @Transactional
+    void addProductStockWithIdempotencyKeyOfAnotherRequestShouldBeUnprocessable() throws Exception {
+        insertProductWithUserAccount();
+
+        AlterStockVM alterStockVM = new AlterStockVM();
+        alterStockVM.setOperation(Operation.ADD);
+        alterStockVM.setQuantity(100);
+
+        restAccountMockMvc
+                .perform(post(CONTROLLER_BASE_URL + "/" + product.getId() + "/stock")
+                        .header("user_id", product.getUserAccount().getId())
+                        .header(ProductController.IDEMPOTENCY_KEY_HEADER, "terminal-1-operation-2")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(TestUtil.convertObjectToJsonBytes(alterStockVM)))
+                .andExpect(status().isOk());
+
+        alterStockVM.setQuantity(200);
+        restAccountMockMvc
+                .perform(post(CONTROLLER_BASE_URL + "/" + product.getId() + "/stock")
+                        .header("user_id", product.getUserAccount().getId())
+                        .header(ProductController.IDEMPOTENCY_KEY_HEADER, "terminal-1-operation-2")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(TestUtil.convertObjectToJsonBytes(alterStockVM)))
+                .andExpect(status().isUnprocessableEntity());
+
+        Optional<Product> productAfterEdit = productRepository.findById(product.getId());
+        assertThat(productAfterEdit).isNotEmpty();
+        productAfterEdit.map(product1 -> assertThat(product1.getStock().getQuantity()).isEqualTo(DEFAULT_PRODUCT_STOCK_QUANTITY + 100));
+    }
+
     @Test
     @Transactional
     void subProductStockIsSuccessful() throws Exception {
@@ -302,7 +655,7 @@ class ProductControllerTest {
                         .header("user_id", product.getUserAccount().getId())
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(TestUtil.convertObjectToJsonBytes(alterStockVM)))
-                .andExpect(status().isNoContent());
+                .andExpect(status().isOk());
 
         Optional<Product> productAfterEdit = productRepository.findById(product.getId());
         assertThat(productAfterEdit).isNotEmpty();
@@ -351,4 +704,538 @@ class ProductControllerTest {
         productAfterEdit.map(product1 -> assertThat(product1.getStock().getQuantity()).isEqualTo(DEFAULT_PRODUCT_STOCK_QUANTITY));
     }
 
+    @Test
+    @Transactional
+    void alterStockOfNonExistentProductShouldReturnNotFound() throws Exception {
+        insertProductWithUserAccount();
+
+        AlterStockVM alterStockVM = new AlterStockVM();
+        alterStockVM.setOperation(Operation.ADD);
+        alterStockVM.setQuantity(1);
+
+        restAccountMockMvc
+                .perform(post(CONTROLLER_BASE_URL + "/" + 123 + "/stock")
+                        .header("user_id", product.getUserAccount().getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(TestUtil.convertObjectToJsonBytes(alterStockVM)))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @Transactional
+    void alterStockBatchReportsResultPerItem() throws Exception {
+        insertProductWithUserAccount();
+
+        AlterStockBatchVM alterStockBatchVM = new AlterStockBatchVM();
+        alterStockBatchVM.setItems(List.of(
+                createAlterStockItem(product.getId(), Operation.ADD, 100),
+                createAlterStockItem(product.getId(), Operation.SUB, 601),  //Edge case
+                createAlterStockItem(product.getId(), Operation.ADD, 401),  //Edge case
+                createAlterStockItem(123L, Operation.ADD, 1)));
+
+        restAccountMockMvc
+                .perform(post(CONTROLLER_BASE_URL + "/stock/batch")
+                        .header("user_id", product.getUserAccount().getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(TestUtil.convertObjectToJsonBytes(alterStockBatchVM)))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+                .andExpect(jsonPath("$.[0].status").value(StockOperationStatus.APPLIED.name()))
+                .andExpect(jsonPath("$.[1].status").value(StockOperationStatus.INSUFFICIENT_STOCK.name()))
+                .andExpect(jsonPath("$.[2].status").value(StockOperationStatus.STOCK_LIMIT_EXCEEDED.name()))
+                .andExpect(jsonPath("$.[3].status").value(StockOperationStatus.NOT_FOUND.name()));
+
+        Optional<Product> productAfterEdit = productRepository.findById(product.getId());
+        assertThat(productAfterEdit).isNotEmpty();
+        productAfterEdit.map(product1 -> assertThat(product1.getStock().getQuantity()).isEqualTo(DEFAULT_PRODUCT_STOCK_QUANTITY + 100));
+    }
+
+    private static AlterStockItemVM createAlterStockItem(Long productId, Operation operation, int quantity) {
+        AlterStockItemVM alterStockItemVM = new AlterStockItemVM();
+        alterStockItemVM.setProductId(productId);
+        alterStockItemVM.setOperation(operation);
+        alterStockItemVM.setQuantity(quantity);
+        return alterStockItemVM;
+    }
+
+    @Test
+    @Transactional
+    void alterStockIsRecordedInStockMovements() throws Exception {
+        insertProductWithUserAccount();
+
+        AlterStockVM alterStockVM = new AlterStockVM();
+        alterStockVM.setOperation(Operation.SUB);
+        alterStockVM.setQuantity(20);
+
+        restAccountMockMvc
+                .perform(post(CONTROLLER_BASE_URL + "/" + product.getId() + "/stock")
+                        .header("user_id", product.getUserAccount().getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(TestUtil.convertObjectToJsonBytes(alterStockVM)))
+                .andExpect(status().isOk());
+        writeStockMovements();
+
+        restAccountMockMvc
+                .perform(get(CONTROLLER_BASE_URL + "/" + product.getId() + "/stock/movements")
+                        .header("user_id", product.getUserAccount().getId()))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$.[0].operation").value(Operation.SUB.name()))
+                .andExpect(jsonPath("$.[0].quantity").value(20));
+    }
+
+    @Test
+    @Transactional
+    void getStockMovementsPageByCursorIsSuccessful() throws Exception {
+        insertProductWithUserAccount();
+
+        AlterStockVM alterStockVM = new AlterStockVM();
+        alterStockVM.setOperation(Operation.ADD);
+        for (int quantity = 1; quantity <= 3; quantity++) {
+            alterStockVM.setQuantity(quantity);
+            restAccountMockMvc
+                    .perform(post(CONTROLLER_BASE_URL + "/" + product.getId() + "/stock")
+                            .header("user_id", product.getUserAccount().getId())
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(TestUtil.convertObjectToJsonBytes(alterStockVM)))
+                    .andExpect(status().isOk());
+        }
+        writeStockMovements();
+
+        String nextCursor = restAccountMockMvc
+                .perform(get(CONTROLLER_BASE_URL + "/" + product.getId() + "/stock/movements?limit=2")
+                        .header("user_id", product.getUserAccount().getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$.[0].quantity").value(3))
+                .andExpect(jsonPath("$.[1].quantity").value(2))
+                .andExpect(header().exists("X-Next-Cursor"))
+                .andReturn().getResponse().getHeader("X-Next-Cursor");
+
+        restAccountMockMvc
+                .perform(get(CONTROLLER_BASE_URL + "/" + product.getId() + "/stock/movements?limit=2&cursor=" + nextCursor)
+                        .header("user_id", product.getUserAccount().getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$.[0].quantity").value(1))
+                .andExpect(header().doesNotExist("X-Next-Cursor"));
+    }
+
+    @Test
+    @Transactional
+    void getProductsPageByCursorIsSuccessful() throws Exception {
+        insertProductWithUserAccount();
+        for (String suffix : new String[]{"B", "C"}) {
+            Product otherProduct = createEntity();
+            otherProduct.setName(DEFAULT_PRODUCT_NAME + " " + suffix);
+            otherProduct.setCode(DEFAULT_PRODUCT_CODE + suffix);
+            otherProduct.setUserAccount(product.getUserAccount());
+            productRepository.saveAndFlush(otherProduct);
+        }
+
+        String nextCursor = restAccountMockMvc
+                .perform(get(CONTROLLER_BASE_URL + "?filter=Apple&order=name,desc&limit=2")
+                        .header("user_id", product.getUserAccount().getId()))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$.[0].name").value(DEFAULT_PRODUCT_NAME + " C"))
+                .andExpect(jsonPath("$.[1].name").value(DEFAULT_PRODUCT_NAME + " B"))
+                .andExpect(header().exists("X-Next-Cursor"))
+                .andReturn().getResponse().getHeader("X-Next-Cursor");
+
+        restAccountMockMvc
+                .perform(get(CONTROLLER_BASE_URL + "?filter=Apple&order=name,desc&limit=2&cursor=" + nextCursor)
+                        .header("user_id", product.getUserAccount().getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$.[0].name").value(DEFAULT_PRODUCT_NAME))
+                .andExpect(header().doesNotExist("X-Next-Cursor"));
+    }
+
+    @Test
+    @Transactional
+    void getProductsPageByCursorOrderedByCreatedDateIsSuccessful() throws Exception {
+        insertProductWithUserAccount();
+        for (String suffix : new String[]{"B", "C"}) {
+            Product otherProduct = createEntity();
+            otherProduct.setName(DEFAULT_PRODUCT_NAME + " " + suffix);
+            otherProduct.setCode(DEFAULT_PRODUCT_CODE + suffix);
+            otherProduct.setUserAccount(product.getUserAccount());
+            productRepository.saveAndFlush(otherProduct);
+        }
+
+        // Read the dates as stored, with the precision of the column.
+        em.clear();
+
+        String nextCursor = restAccountMockMvc
+                .perform(get(CONTROLLER_BASE_URL + "?filter=Apple&order=createdDate,asc&limit=2")
+                        .header("user_id", product.getUserAccount().getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$.[0].name").value(DEFAULT_PRODUCT_NAME))
+                .andExpect(jsonPath("$.[1].name").value(DEFAULT_PRODUCT_NAME + " B"))
+                .andExpect(header().exists("X-Next-Cursor"))
+                .andReturn().getResponse().getHeader("X-Next-Cursor");
+
+        restAccountMockMvc
+                .perform(get(CONTROLLER_BASE_URL + "?filter=Apple&order=createdDate,asc&limit=2&cursor=" + nextCursor)
+                        .header("user_id", product.getUserAccount().getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$.[0].name").value(DEFAULT_PRODUCT_NAME + " C"))
+                .andExpect(header().doesNotExist("X-Next-Cursor"));
+    }
+
+    @Test
+    @Transactional
+    void getProductsPageByCursorOrderedByNullPropertyIsSuccessful() throws Exception {
+        insertProductWithUserAccount();
+        for (String suffix : new String[]{"B", "C"}) {
+            Product otherProduct = createEntity();
+            otherProduct.setName(DEFAULT_PRODUCT_NAME + " " + suffix);
+            otherProduct.setCode(DEFAULT_PRODUCT_CODE + suffix);
+            otherProduct.setUserAccount(product.getUserAccount());
+            productRepository.saveAndFlush(otherProduct);
+        }
+
+        String nextCursor = restAccountMockMvc
+                .perform(get(CONTROLLER_BASE_URL + "?filter=Apple&order=deletedDate,desc&limit=2")
+                        .header("user_id", product.getUserAccount().getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$.[0].name").value(DEFAULT_PRODUCT_NAME))
+                .andExpect(jsonPath("$.[1].name").value(DEFAULT_PRODUCT_NAME + " B"))
+                .andExpect(header().exists("X-Next-Cursor"))
+                .andReturn().getResponse().getHeader("X-Next-Cursor");
+
+        restAccountMockMvc
+                .perform(get(CONTROLLER_BASE_URL + "?filter=Apple&order=deletedDate,desc&limit=2&cursor=" + nextCursor)
+                        .header("user_id", product.getUserAccount().getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$.[0].name").value(DEFAULT_PRODUCT_NAME + " C"))
+                .andExpect(header().doesNotExist("X-Next-Cursor"));
+    }
+
+    @Test
+    @Transactional
+    void getProductsPageByCursorOrderedByStockOfProductWithoutStockIsSuccessful() throws Exception {
+        insertProductWithUserAccount();
+        Product productWithoutStock = createEntity();
+        productWithoutStock.setName(DEFAULT_PRODUCT_NAME + " B");
+        productWithoutStock.setCode(DEFAULT_PRODUCT_CODE + "B");
+        productWithoutStock.setStock(null);
+        productWithoutStock.setUserAccount(product.getUserAccount());
+        productRepository.saveAndFlush(productWithoutStock);
+
+        String nextCursor = restAccountMockMvc
+                .perform(get(CONTROLLER_BASE_URL + "?filter=Apple&order=stock.quantity,asc&limit=1")
+                        .header("user_id", product.getUserAccount().getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$.[0].name").value(DEFAULT_PRODUCT_NAME + " B"))
+                .andExpect(header().exists("X-Next-Cursor"))
+                .andReturn().getResponse().getHeader("X-Next-Cursor");
+
+        restAccountMockMvc
+                .perform(get(CONTROLLER_BASE_URL + "?filter=Apple&order=stock.quantity,asc&limit=1&cursor=" + nextCursor)
+                        .header("user_id", product.getUserAccount().getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$.[0].name").value(DEFAULT_PRODUCT_NAME))
+                .andExpect(header().doesNotExist("X-Next-Cursor"));
+    }
+
+    @Test
+    @Transactional
+    void getProductsPageOrderedByUnsupportedPropertyShouldBeBadRequest() throws Exception {
+        insertProductWithUserAccount();
+
+        restAccountMockMvc
+                .perform(get(CONTROLLER_BASE_URL + "?order=userAccount.id,asc&limit=2")
+                        .header("user_id", product.getUserAccount().getId()))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    void getProductsPageWithInvalidCursorShouldBeBadRequest() throws Exception {
+        insertProductWithUserAccount();
+
+        restAccountMockMvc
+                .perform(get(CONTROLLER_BASE_URL + "?order=name,desc&limit=2&cursor=invalid")
+                        .header("user_id", product.getUserAccount().getId()))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    void getAllProductsWithFilterOnCodeOrUnknownTermIsSuccessful() throws Exception {
+        insertProductWithUserAccount();
+
+        restAccountMockMvc
+                .perform(get(CONTROLLER_BASE_URL + "?filter=3456&order=name,asc")
+                        .header("user_id", product.getUserAccount().getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$.[0].code").value(DEFAULT_PRODUCT_CODE));
+
+        restAccountMockMvc
+                .perform(get(CONTROLLER_BASE_URL + "?filter=Samsung&order=name,asc")
+                        .header("user_id", product.getUserAccount().getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(0));
+    }
+
+    @Test
+    @Transactional
+    void getAllProductsWithEscapedFilterIsSuccessful() throws Exception {
+        insertProductWithUserAccount();
+
+        // The backslash escapes the next character of the LIKE pattern, so the index cannot narrow the search
+        restAccountMockMvc
+                .perform(get(CONTROLLER_BASE_URL)
+                        .param("filter", "iPh\\one")
+                        .header("user_id", product.getUserAccount().getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].id").value(contains(product.getId().intValue())));
+    }
+
+    @Test
+    @Transactional
+    void getAllProductsWithoutFilterListsEveryProduct() throws Exception {
+        insertProductWithUserAccount();
+        insertOtherProduct();
+
+        restAccountMockMvc
+                .perform(get(CONTROLLER_BASE_URL + "?order=name,asc")
+                        .header("user_id", product.getUserAccount().getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2));
+
+        restAccountMockMvc
+                .perform(get(CONTROLLER_BASE_URL + "?order=name,asc&limit=5")
+                        .header("user_id", product.getUserAccount().getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2));
+
+        String content = restAccountMockMvc
+                .perform(get(CONTROLLER_BASE_URL + "?order=name,asc")
+                        .header("user_id", product.getUserAccount().getId())
+                        .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertThat(content.split("\n")).hasSize(2);
+    }
+
+    @Test
+    @Transactional
+    void streamAllProductsAsNdjsonIsSuccessful() throws Exception {
+        insertProductWithUserAccount();
+        Product otherProduct = createEntity();
+        otherProduct.setName(DEFAULT_PRODUCT_NAME + " B");
+        otherProduct.setCode(DEFAULT_PRODUCT_CODE + "B");
+        otherProduct.setUserAccount(product.getUserAccount());
+        productRepository.saveAndFlush(otherProduct);
+
+        String content = restAccountMockMvc
+                .perform(get(CONTROLLER_BASE_URL + "?filter=Apple&order=name,asc")
+                        .header("user_id", product.getUserAccount().getId())
+                        .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = content.split("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(lines[0]).contains("\"name\":\"" + DEFAULT_PRODUCT_NAME + "\"");
+        assertThat(lines[1]).contains("\"name\":\"" + DEFAULT_PRODUCT_NAME + " B\"");
+    }
+
+    @Test
+    @Transactional
+    void getOneProductWithNonExistentUserAccountShouldBeBadRequest() throws Exception {
+        insertProductWithUserAccount();
+
+        restAccountMockMvc
+                .perform(get(CONTROLLER_BASE_URL + "/" + product.getId())
+                        .header("user_id", product.getUserAccount().getId() + 1000))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    void alterStockIsCountedByOperationAndResult() throws Exception {
+        insertProductWithUserAccount();
+        Counter applied = meterRegistry.get(StockMetrics.STOCK_OPERATIONS)
+                .tag("operation", Operation.ADD.name()).tag("status", StockOperationStatus.APPLIED.name()).counter();
+        Counter limitExceeded = meterRegistry.get(StockMetrics.STOCK_OPERATIONS)
+                .tag("operation", Operation.ADD.name()).tag("status", StockOperationStatus.STOCK_LIMIT_EXCEEDED.name()).counter();
+        double appliedBefore = applied.count();
+        double limitExceededBefore = limitExceeded.count();
+
+        AlterStockVM alterStockVM = new AlterStockVM();
+        alterStockVM.setOperation(Operation.ADD);
+        alterStockVM.setQuantity(500);
+
+        restAccountMockMvc
+                .perform(post(CONTROLLER_BASE_URL + "/" + product.getId() + "/stock")
+                        .header("user_id", product.getUserAccount().getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(TestUtil.convertObjectToJsonBytes(alterStockVM)))
+                .andExpect(status().isOk());
+        restAccountMockMvc
+                .perform(post(CONTROLLER_BASE_URL + "/" + product.getId() + "/stock")
+                        .header("user_id", product.getUserAccount().getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(TestUtil.convertObjectToJsonBytes(alterStockVM)))
+                .andExpect(status().isUnprocessableEntity());
+
+        assertThat(applied.count()).isEqualTo(appliedBefore + 1);
+        assertThat(limitExceeded.count()).isEqualTo(limitExceededBefore + 1);
+        assertThat(meterRegistry.get(MethodTimingAspect.SERVICE_TIMER)
+                .tag("class", "ProductService").tag("method", "alterStock").timers()).isNotEmpty();
+        assertThat(meterRegistry.get(MethodTimingAspect.REPOSITORY_TIMER)
+                .tag("class", "StockRepository").tag("method", "applyDelta").timer().count()).isPositive();
+    }
+
+    @Test
+    @Transactional
+    void importProductsFromCsvReportsRejectedLines() throws Exception {
+        insertProductWithUserAccount();
+        String csv = "code,name,price,quantity\n" +
+                "IMP-1,\"Apple iPhone 12, 64GB\",7000,10\n" +
+                DEFAULT_PRODUCT_CODE + ",Apple iPhone 12,8000,500\n" +
+                "IMP-2,Apple iPhone SE,abc,10\n" +
+                "IMP-3,Apple iPad,3000,1001\n" +
+                "\n" +
+                "IMP-4,Apple iPad Mini,2500,0\n" +
+                "IMP-1,Apple iPhone 12,7000,10\n";
+
+        restAccountMockMvc
+                .perform(post(CONTROLLER_BASE_URL + "/import")
+                        .header("user_id", product.getUserAccount().getId())
+                        .contentType(ProductController.TEXT_CSV_VALUE)
+                        .content(csv))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(2))
+                .andExpect(jsonPath("$.rejected_count").value(4))
+                .andExpect(jsonPath("$.rejected[*].line").value(contains(3, 4, 5, 8)))
+                .andExpect(jsonPath("$.rejected[0].reason").value("Já existe um produto com o código: " + DEFAULT_PRODUCT_CODE))
+                .andExpect(jsonPath("$.rejected[2].reason").value(startsWith("stock.quantity")));
+
+        assertThat(productRepository.findOneByCodeAndUserAccount_Id("IMP-1", product.getUserAccount().getId()))
+                .hasValueSatisfying(imported -> {
+                    assertThat(imported.getName()).isEqualTo("Apple iPhone 12, 64GB");
+                    assertThat(imported.getStock().getQuantity()).isEqualTo(10);
+                });
+        assertThat(productRepository.findAll()).hasSize(3);
+    }
+
+    @Test
+    @Transactional
+    void importProductsKeepsTheFirstRejectedLinesAndCountsThemAll() throws Exception {
+        UserAccount userAccount = UserAccountControllerTest.createEntity();
+        userAccountRepository.saveAndFlush(userAccount);
+        StringBuilder csv = new StringBuilder("code,name,price,quantity\n");
+        for (int i = 0; i < Constants.MAX_IMPORT_REJECTIONS + 5; i++) {
+            csv.append("IMP-").append(i).append(",Apple iPhone,abc,10\n");
+        }
+        csv.append("IMP-OK,Apple iPhone,7000,10\n");
+
+        restAccountMockMvc
+                .perform(post(CONTROLLER_BASE_URL + "/import")
+                        .header("user_id", userAccount.getId())
+                        .contentType(ProductController.TEXT_CSV_VALUE)
+                        .content(csv.toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(1))
+                .andExpect(jsonPath("$.rejected_count").value(Constants.MAX_IMPORT_REJECTIONS + 5))
+                .andExpect(jsonPath("$.rejected.length()").value(Constants.MAX_IMPORT_REJECTIONS))
+                .andExpect(jsonPath("$.rejected[0].line").value(2))
+                .andExpect(jsonPath("$.rejected[" + (Constants.MAX_IMPORT_REJECTIONS - 1) + "].line").value(Constants.MAX_IMPORT_REJECTIONS + 1));
+    }
+
+    @Test
+    @Transactional
+    void importProductsFromCsvWithLineBreakInQuotedFieldIsSuccessful() throws Exception {
+        UserAccount userAccount = UserAccountControllerTest.createEntity();
+        userAccountRepository.saveAndFlush(userAccount);
+        String csv = "code,name,price,quantity\n" +
+                "IMP-1,\"Apple iPhone 12\nPro, \"\"Max\"\"\",7000,10\n" +
+                "IMP-2,Apple iPhone SE,abc,10\n" +
+                "IMP-3,\"Apple iPad,3000,10\n";
+
+        restAccountMockMvc
+                .perform(post(CONTROLLER_BASE_URL + "/import")
+                        .header("user_id", userAccount.getId())
+                        .contentType(ProductController.TEXT_CSV_VALUE)
+                        .content(csv))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(1))
+                .andExpect(jsonPath("$.rejected[*].line").value(contains(4, 5)))
+                .andExpect(jsonPath("$.rejected[1].reason").value("Linha inválida: aspas não fechadas"));
+
+        assertThat(productRepository.findOneByCodeAndUserAccount_Id("IMP-1", userAccount.getId()))
+                .hasValueSatisfying(imported -> assertThat(imported.getName()).isEqualTo("Apple iPhone 12\nPro, \"Max\""));
+    }
+
+    @Test
+    @Transactional
+    void importProductsFromNdjsonIsSuccessful() throws Exception {
+        UserAccount userAccount = UserAccountControllerTest.createEntity();
+        userAccountRepository.saveAndFlush(userAccount);
+        String ndjson = "{\"code\":\"IMP-1\",\"name\":\"Apple iPhone 12\",\"price\":7000,\"stock\":{\"quantity\":10}}\n" +
+                "{\"code\":\"IMP-2\",\"name\":\"Apple iPhone SE\",\"price\":3000}\n" +
+                "{\"code\":\"IMP-3\",\n";
+
+        restAccountMockMvc
+                .perform(post(CONTROLLER_BASE_URL + "/import")
+                        .header("user_id", userAccount.getId())
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(ndjson))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(1))
+                .andExpect(jsonPath("$.rejected[*].line").value(contains(2, 3)));
+    }
+
+    @Test
+    @Transactional
+    void exportProductsAsCsvIsSuccessful() throws Exception {
+        product.setName("Apple iPhone 12, \"Pro\"");
+        insertProductWithUserAccount();
+
+        restAccountMockMvc
+                .perform(get(CONTROLLER_BASE_URL + "/export")
+                        .header("user_id", product.getUserAccount().getId()))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(ProductController.TEXT_CSV_VALUE))
+                .andExpect(content().string("id,code,name,price,quantity\n" +
+                        product.getId() + "," + DEFAULT_PRODUCT_CODE + ",\"Apple iPhone 12, \"\"Pro\"\"\",8000.00," + DEFAULT_PRODUCT_STOCK_QUANTITY + "\n"));
+    }
+
+    @Test
+    @Transactional
+    void exportProductsAsGzippedNdjsonIsSuccessful() throws Exception {
+        insertProductWithUserAccount();
+
+        byte[] body = restAccountMockMvc
+                .perform(get(CONTROLLER_BASE_URL + "/export")
+                        .header("user_id", product.getUserAccount().getId())
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate")
+                        .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        try (GZIPInputStream inputStream = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            String ndjson = new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
+            assertThat(ndjson).isEqualTo("{\"id\":" + product.getId() + ",\"name\":\"" + DEFAULT_PRODUCT_NAME + "\",\"code\":\"" + DEFAULT_PRODUCT_CODE +
+                    "\",\"price\":8000.00,\"stock\":{\"quantity\":" + DEFAULT_PRODUCT_STOCK_QUANTITY + "}}\n");
+        }
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,132 @@
+package com.netpos.desafionetpos.controller;
+
+import com.netpos.desafionetpos.DesafioNetposApplication;
+import com.netpos.desafionetpos.entity.Product;
+import com.netpos.desafionetpos.entity.UserAccount;
+import com.netpos.desafionetpos.repository.ProductRepository;
+import com.netpos.desafionetpos.repository.UserAccountRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.UUID;
+
+import static org.hamcrest.Matchers.hasItem;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Integration tests for the {@link ProductReactiveController} REST controller.
+ * <p>
+ * R2DBC reads on its own connections, so the data is committed, on a database private to this test, and each test
+ * creates its own UserAccount.
+ */
+@SpringBootTest(classes = {DesafioNetposApplication.class},
+        properties = {"spring.datasource.url=jdbc:h2:mem:reactive", "application.r2dbc.url=r2dbc:h2:mem:///reactive"})
+@AutoConfigureMockMvc
+class ProductReactiveControllerTest {
+
+    private static final String CONTROLLER_BASE_URL = "/reactive/products";
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserAccountRepository userAccountRepository;
+
+    @Autowired
+    private MockMvc restAccountMockMvc;
+
+    private Product product;
+
+    @BeforeEach
+    public void initTest() {
+        product = ProductControllerTest.createEntity();
+        product.setUserAccount(createUserAccount());
+        productRepository.saveAndFlush(product);
+    }
+
+    private UserAccount createUserAccount() {
+        UserAccount userAccount = UserAccountControllerTest.createEntity();
+        userAccount.setEmail(UUID.randomUUID() + "@netpos.com");
+        return userAccountRepository.saveAndFlush(userAccount);
+    }
+
+    @Test
+    void streamAllProductsByFiltersIsSuccessful() throws Exception {
+        MvcResult mvcResult = restAccountMockMvc
+                .perform(get(CONTROLLER_BASE_URL + "?filter=" + product.getCode() + "&order=name,asc")
+                        .header("user_id", product.getUserAccount().getId())
+                        .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        restAccountMockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string("{\"id\":" + product.getId() + ",\"name\":\"" + product.getName() + "\",\"code\":\"" +
+                        product.getCode() + "\",\"price\":8000.00,\"stock\":{\"quantity\":" + product.getStock().getQuantity() + "},\"version\":" +
+                        product.getVersion() + "}\n"));
+    }
+
+    @Test
+    void getAllProductsByFiltersAsJsonIsSuccessful() throws Exception {
+        MvcResult mvcResult = restAccountMockMvc
+                .perform(get(CONTROLLER_BASE_URL + "?filter=" + product.getCode())
+                        .header("user_id", product.getUserAccount().getId())
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        restAccountMockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.[*].id").value(hasItem(product.getId().intValue())));
+    }
+
+    @Test
+    void getAllProductsWithoutFilterListsEveryProduct() throws Exception {
+        MvcResult mvcResult = restAccountMockMvc
+                .perform(get(CONTROLLER_BASE_URL)
+                        .header("user_id", product.getUserAccount().getId())
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        restAccountMockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.[*].id").value(hasItem(product.getId().intValue())));
+    }
+
+    @Test
+    void getAllProductsByInvalidOrderIsBadRequest() throws Exception {
+        MvcResult mvcResult = restAccountMockMvc
+                .perform(get(CONTROLLER_BASE_URL + "?filter=&order=password,asc")
+                        .header("user_id", product.getUserAccount().getId())
+                        .accept(MediaType.APPLICATION_JSON))
+                .andReturn();
+
+        restAccountMockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getOneProductOfAnotherUserAccountIsNotFound() throws Exception {
+        UserAccount otherUserAccount = createUserAccount();
+
+        MvcResult mvcResult = restAccountMockMvc
+                .perform(get(CONTROLLER_BASE_URL + "/{product_id}", product.getId())
+                        .header("user_id", otherUserAccount.getId()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        restAccountMockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isNotFound());
+    }
+}
@@ -1,6 +1,7 @@
 package com.netpos.desafionetpos.controller;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 import static org.hamcrest.Matchers.hasItem;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -11,6 +12,7 @@ import com.netpos.desafionetpos.dto.vm.UserAccountVM;
 import com.netpos.desafionetpos.entity.UserAccount;
 import com.netpos.desafionetpos.repository.UserAccountRepository;
 import com.netpos.desafionetpos.util.TestUtil;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -19,6 +21,7 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.transaction.annotation.Transactional;
 
 /**
@@ -58,8 +61,15 @@ class UserAccountControllerTest {
         userAccount = createEntity();
     }
 
+    /*
+     * The UserAccounts created through POST /users are committed by the hashing pool, outside the test transaction.
+     */
+    @AfterEach
+    public void deleteCreatedUserAccount() {
+        userAccountRepository.findOneByEmail(DEFAULT_USER_ACCOUNT_EMAIL).ifPresent(userAccountRepository::delete);
+    }
+
     @Test
-    @Transactional
     void createUserAccountIsSuccessful() throws Exception {
         int databaseSizeBeforeInsert = userAccountRepository.findAll().size();
 
@@ -68,10 +78,14 @@ class UserAccountControllerTest {
         userAccountVM.setFullName(DEFAULT_USER_ACCOUNT_FULL_NAME);
         userAccountVM.setPassword(DEFAULT_USER_ACCOUNT_PLAIN_PASSWORD);
 
-        restAccountMockMvc
+        MvcResult result = restAccountMockMvc
                 .perform(post(CONTROLLER_BASE_URL)
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(TestUtil.convertObjectToJsonBytes(userAccountVM)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        restAccountMockMvc
+                .perform(asyncDispatch(result))
                 .andExpect(status().isCreated())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
                 .andExpect(jsonPath("$.email").value(DEFAULT_USER_ACCOUNT_EMAIL))
@@ -83,7 +97,6 @@ class UserAccountControllerTest {
     }
 
     @Test
-    @Transactional
     void createUserAccountWithEmailAlreadyExistsIsNotAllowed() throws Exception {
         userAccountRepository.saveAndFlush(userAccount);
         int databaseSizeBeforeInsert = userAccountRepository.findAll().size();
@@ -93,10 +106,14 @@ class UserAccountControllerTest {
         userAccountVM.setFullName(DEFAULT_USER_ACCOUNT_FULL_NAME);
         userAccountVM.setPassword(DEFAULT_USER_ACCOUNT_PLAIN_PASSWORD);
 
-        restAccountMockMvc
+        MvcResult result = restAccountMockMvc
                 .perform(post(CONTROLLER_BASE_URL)
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(TestUtil.convertObjectToJsonBytes(userAccountVM)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        restAccountMockMvc
+                .perform(asyncDispatch(result))
                 .andExpect(status().isBadRequest())
                 .andExpect(content().contentType(MediaType.APPLICATION_PROBLEM_JSON))
                 .andExpect(jsonPath("$.code").value(HttpStatus.BAD_REQUEST.value()));
@@ -141,10 +158,14 @@ class UserAccountControllerTest {
         userAccountVM.setFullName(DEFAULT_USER_ACCOUNT_FULL_NAME);
         userAccountVM.setPassword(DEFAULT_USER_ACCOUNT_PLAIN_PASSWORD);
 
-        restAccountMockMvc
+        MvcResult result = restAccountMockMvc
                 .perform(post(CONTROLLER_BASE_URL)
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(TestUtil.convertObjectToJsonBytes(userAccountVM)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        restAccountMockMvc
+                .perform(asyncDispatch(result))
                 .andExpect(status().isBadRequest());
 
         int databaseSizeAfterInsert = userAccountRepository.findAll().size();
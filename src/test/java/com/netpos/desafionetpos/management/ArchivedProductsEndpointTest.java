@@ -0,0 +1,185 @@
+package com.netpos.desafionetpos.management;
+
+import com.netpos.desafionetpos.DesafioNetposApplication;
+import com.netpos.desafionetpos.entity.Product;
+import com.netpos.desafionetpos.entity.Stock;
+import com.netpos.desafionetpos.entity.UserAccount;
+import com.netpos.desafionetpos.entity.enumeration.Operation;
+import com.netpos.desafionetpos.repository.ProductRepository;
+import com.netpos.desafionetpos.repository.StockMovementRepository;
+import com.netpos.desafionetpos.repository.UserAccountRepository;
+import com.netpos.desafionetpos.service.ProductArchiveService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.math.BigDecimal;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Integration tests for the {@link ProductArchiveService} and the {@link ArchivedProductsEndpoint}.
+ */
+@SpringBootTest(classes = {DesafioNetposApplication.class})
+@AutoConfigureMockMvc
+class ArchivedProductsEndpointTest {
+
+    private static final String ENDPOINT_URL = "/actuator/archivedproducts";
+
+    private static final String ENTITY_API_URL = "/products/archived";
+
+    private static final int STOCK_QUANTITY = 40;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserAccountRepository userAccountRepository;
+
+    @Autowired
+    private StockMovementRepository stockMovementRepository;
+
+    @Autowired
+    private ProductArchiveService productArchiveService;
+
+    @Autowired
+    private ArchivedProductsEndpoint archivedProductsEndpoint;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private MockMvc restAccountMockMvc;
+
+    private UserAccount userAccount;
+
+    @BeforeEach
+    public void initTest() {
+        userAccount = new UserAccount();
+        userAccount.setFullName("Archive");
+        userAccount.setEmail("archive@netpos.com");
+        userAccount.setPassword("$2a$04$" + "0".repeat(53));
+    }
+
+    private Product createProduct(String code) {
+        Product product = new Product();
+        product.setName("Product " + code);
+        product.setCode(code);
+        product.setPrice(BigDecimal.TEN);
+        product.setStock(new Stock().quantity(STOCK_QUANTITY));
+        product.setUserAccount(userAccount);
+        return productRepository.saveAndFlush(product);
+    }
+
+    @Test
+    @Transactional
+    void archiveMovesDeletedProductsOutOfTheHotTables() throws Exception {
+        userAccountRepository.saveAndFlush(userAccount);
+        Product deletedProduct = createProduct("DELETED");
+        Product liveProduct = createProduct("LIVE");
+        stockMovementRepository.append(deletedProduct.getId(), userAccount.getId(), Operation.ADD.name(), 5);
+        productRepository.delete(deletedProduct);
+        productRepository.flush();
+        entityManager.clear();
+
+        int archived = productArchiveService.archiveDeletedBefore(Instant.now().plusSeconds(1));
+
+        assertThat(archived).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM product WHERE id = ?", Integer.class, deletedProduct.getId())).isZero();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM stock WHERE id = ?", Integer.class, deletedProduct.getStock().getId())).isZero();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM stock_movement_archive WHERE product_id = ?", Integer.class, deletedProduct.getId())).isEqualTo(1);
+        assertThat(productRepository.findById(liveProduct.getId())).isPresent();
+
+        restAccountMockMvc.perform(get(ENTITY_API_URL).header("user_id", userAccount.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].id").value(contains(deletedProduct.getId().intValue())))
+                .andExpect(jsonPath("$[0].code").value("DELETED"))
+                .andExpect(jsonPath("$[0].stock_quantity").value(STOCK_QUANTITY))
+                .andExpect(jsonPath("$[0].deleted_date").isNotEmpty());
+
+        assertThat(archivedProductsEndpoint.archivedProduct(deletedProduct.getId()).getUserAccountId()).isEqualTo(userAccount.getId());
+    }
+
+    @Test
+    @Transactional
+    void getArchivedProductsOfAnotherUserAccountIsEmpty() throws Exception {
+        userAccountRepository.saveAndFlush(userAccount);
+        Product deletedProduct = createProduct("DELETED");
+        productRepository.delete(deletedProduct);
+        productRepository.flush();
+        entityManager.clear();
+        productArchiveService.archiveDeletedBefore(Instant.now().plusSeconds(1));
+
+        UserAccount otherUserAccount = new UserAccount();
+        otherUserAccount.setFullName("Other");
+        otherUserAccount.setEmail("other.archive@netpos.com");
+        otherUserAccount.setPassword(userAccount.getPassword());
+        userAccountRepository.saveAndFlush(otherUserAccount);
+
+        restAccountMockMvc.perform(get(ENTITY_API_URL).header("user_id", otherUserAccount.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$").isEmpty());
+    }
+
+    @Test
+    @Transactional
+    void getArchivedProductsWithInvalidLimitShouldBeBadRequest() throws Exception {
+        userAccountRepository.saveAndFlush(userAccount);
+
+        restAccountMockMvc.perform(get(ENTITY_API_URL + "?limit=0").header("user_id", userAccount.getId()))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void archivedProductsEndpointIsNotExposedOnTheWeb() throws Exception {
+        restAccountMockMvc.perform(get(ENDPOINT_URL))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @Transactional
+    void archiveKeepsRecentlyDeletedProducts() {
+        userAccountRepository.saveAndFlush(userAccount);
+        Product deletedProduct = createProduct("DELETED");
+        productRepository.delete(deletedProduct);
+        productRepository.flush();
+
+        assertThat(productArchiveService.archive()).isZero();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM product WHERE id = ?", Integer.class, deletedProduct.getId())).isEqualTo(1);
+    }
+
+    @Test
+    @Transactional
+    void archiveMovesOldStockMovementsOutOfTheLedger() {
+        userAccountRepository.saveAndFlush(userAccount);
+        Product product = createProduct("LEDGER");
+        stockMovementRepository.append(product.getId(), userAccount.getId(), Operation.ADD.name(), 5);
+        stockMovementRepository.append(product.getId(), userAccount.getId(), Operation.SUB.name(), 2);
+
+        assertThat(productArchiveService.archiveMovements()).isZero();
+        int archived = productArchiveService.archiveMovementsCreatedBefore(Instant.now().plusSeconds(1));
+
+        assertThat(archived).isEqualTo(2);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM stock_movement WHERE stock_id = ?", Integer.class, product.getStock().getId())).isZero();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM stock_movement_archive WHERE product_id = ?", Integer.class, product.getId())).isEqualTo(2);
+        assertThat(jdbcTemplate.queryForObject("SELECT quantity FROM stock WHERE id = ?", Integer.class, product.getStock().getId())).isEqualTo(STOCK_QUANTITY);
+    }
+
+    @Test
+    void getMissingArchivedProduct() {
+        assertThat(archivedProductsEndpoint.archivedProduct(Long.MAX_VALUE)).isNull();
+    }
+}
@@ -0,0 +1,182 @@
+package com.netpos.desafionetpos.repository;
+
+import com.netpos.desafionetpos.DesafioNetposApplication;
+import com.netpos.desafionetpos.dto.ProductDTO;
+import com.netpos.desafionetpos.entity.Product;
+import com.netpos.desafionetpos.entity.Stock;
+import com.netpos.desafionetpos.entity.UserAccount;
+import com.netpos.desafionetpos.entity.enumeration.Operation;
+import com.netpos.desafionetpos.repository.projection.StockMovementEntry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs every repository query against the schema created by the migrations and checks, with H2's EXPLAIN,
+ * that none of them reads a whole table, so that a query without a supporting index fails the build.
+ * <p>
+ * The statements are taken from the H2 query statistics, which record the SQL actually issued by Hibernate,
+ * by the JDBC batches and by R2DBC, on a database private to this test.
+ */
+@SpringBootTest(classes = {DesafioNetposApplication.class},
+        properties = {"spring.datasource.url=jdbc:h2:mem:query-plan", "application.r2dbc.url=r2dbc:h2:mem:///query-plan"})
+class RepositoryQueryPlanTest {
+
+    private static final Pattern APPLICATION_TABLE = Pattern.compile(
+            "\\b(product|stock|stock_movement|user_account|product_archive|stock_movement_archive)\\b", Pattern.CASE_INSENSITIVE);
+
+    private static final String TABLE_SCAN = ".tableScan";
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductReactiveRepository productReactiveRepository;
+
+    @Autowired
+    private StockRepository stockRepository;
+
+    @Autowired
+    private StockMovementRepository stockMovementRepository;
+
+    @Autowired
+    private UserAccountRepository userAccountRepository;
+
+    @Autowired
+    private ProductArchiveRepository productArchiveRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @BeforeEach
+    public void initTest() throws SQLException {
+        // SET commits, so it runs outside of the test transaction
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("SET QUERY_STATISTICS_MAX_ENTRIES 1000");
+            statement.execute("SET QUERY_STATISTICS FALSE");
+            statement.execute("SET QUERY_STATISTICS TRUE");
+        }
+    }
+
+    @Test
+    @Transactional
+    void repositoryQueriesUseIndexes() throws SQLException {
+        UserAccount userAccount = new UserAccount();
+        userAccount.setFullName("Query Plan");
+        userAccount.setEmail("query.plan@netpos.com");
+        userAccount.setPassword("$2a$04$" + "0".repeat(53));
+        userAccountRepository.saveAndFlush(userAccount);
+        Product product = new Product();
+        product.setName("Apple iPhone");
+        product.setCode("IPHONE");
+        product.setPrice(BigDecimal.TEN);
+        product.setStock(new Stock().quantity(10));
+        product.setUserAccount(userAccount);
+        productRepository.saveAndFlush(product);
+        Long userAccountId = userAccount.getId();
+        Long productId = product.getId();
+        Sort sort = Sort.by("name").and(Sort.by("id"));
+
+        productRepository.findDtoByFilters(userAccountId, "", sort);
+        productRepository.findDtoByFiltersAndIdIn(userAccountId, "", List.of(productId), sort);
+        productRepository.findSearchTermsByUserAccount(userAccountId);
+        try (Stream<ProductDTO> products = productRepository.streamDtoByFilters(userAccountId, "", sort)) {
+            products.count();
+        }
+        productRepository.findOneByCodeAndUserAccount_Id(product.getCode(), userAccountId);
+        productRepository.findOneByIdAndUserAccount_Id(productId, userAccountId);
+        productRepository.findDtoByIdAndUserAccount(productId, userAccountId);
+        productRepository.findIdsByUserAccount(List.of(productId), userAccountId);
+        productRepository.findCodesByUserAccount(List.of(product.getCode()), userAccountId);
+        productRepository.findPageByFilters(userAccountId, "", null, sort, null, 10);
+        productRepository.findPageByFilters(userAccountId, null, List.of(productId), sort, List.of(product.getName(), "0"), 10);
+        productRepository.exportByUserAccount(userAccountId, (id, code, name, price, quantity) -> {
+        });
+        productRepository.patch(productId, userAccountId, product.getName(), product.getPrice());
+
+        stockRepository.applyDelta(productId, userAccountId, 1);
+        stockRepository.applyDeltas(userAccountId, new long[]{productId}, new int[]{-1});
+        stockMovementRepository.append(productId, userAccountId, Operation.ADD.name(), 1);
+        stockMovementRepository.appendAll(List.of(new StockMovementEntry(productId, userAccountId, Operation.SUB, 1, Instant.now())));
+        stockMovementRepository.findPageByProduct(productId, userAccountId, Long.MAX_VALUE, PageRequest.of(0, 10));
+        productArchiveRepository.archiveMovementsCreatedBefore(Instant.now().plusSeconds(1), 10);
+
+        userAccountRepository.findByFullNameStartingWithIgnoreCaseOrderByFullName("A");
+        userAccountRepository.findByOrderByFullName();
+        userAccountRepository.findOneByEmail(userAccount.getEmail());
+
+        productReactiveRepository.findDtoByFilters(userAccountId, "", Sort.by("name")).collectList().block();
+        productReactiveRepository.findDtoByIdAndUserAccount(productId, userAccountId).block();
+
+        // The bulk patch above bumped the version behind the managed Product
+        entityManager.clear();
+        productRepository.delete(productRepository.findOneByIdAndUserAccount_Id(productId, userAccountId).orElseThrow());
+        entityManager.flush();
+        productRepository.softDeleteByUserAccount(List.of(productId), userAccountId);
+        productRepository.softDeleteByFilters(userAccountId, product.getCode());
+
+        productArchiveRepository.archiveDeletedBefore(Instant.now().plusSeconds(1), 10);
+        productArchiveRepository.findByUserAccountIdAndIdGreaterThanOrderById(userAccountId, 0L, PageRequest.of(0, 10));
+        productArchiveRepository.findByIdGreaterThanOrderById(0L, PageRequest.of(0, 10));
+        productArchiveRepository.findById(productId);
+
+        List<String> queries = issuedQueries();
+        assertThat(queries).hasSizeGreaterThan(20);
+        assertThat(queries).allSatisfy(sql -> assertThat(explain(sql)).as(sql).doesNotContain(TABLE_SCAN));
+    }
+
+    private List<String> issuedQueries() throws SQLException {
+        List<String> queries = new ArrayList<>();
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT SQL_STATEMENT FROM INFORMATION_SCHEMA.QUERY_STATISTICS")) {
+            while (resultSet.next()) {
+                String sql = resultSet.getString(1).trim();
+                String keyword = sql.split("\\s+", 2)[0].toLowerCase(Locale.ROOT);
+                if (List.of("select", "update", "delete", "insert").contains(keyword)
+                        && !sql.contains("INFORMATION_SCHEMA") && APPLICATION_TABLE.matcher(sql).find()) {
+                    queries.add(sql);
+                }
+            }
+        }
+        return queries;
+    }
+
+    private String explain(String sql) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+            for (int i = 1; i <= statement.getParameterMetaData().getParameterCount(); i++) {
+                statement.setObject(i, null);
+            }
+            try (ResultSet resultSet = statement.executeQuery()) {
+                resultSet.next();
+                return resultSet.getString(1);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Cannot explain " + sql, e);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.netpos.desafionetpos.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.sql.Statement;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the batch of {@link StockRepositoryImpl#applyDeltas(Long, long[], int[])}, against a stubbed driver.
+ */
+class StockRepositoryImplTest {
+
+    private static final Long USER_ACCOUNT_ID = 1L;
+
+    private static final long[] PRODUCT_IDS = {10L, 20L, 30L};
+
+    private static final int[] DELTAS = {5, -3, 7};
+
+    private StockRepositoryImpl stockRepository;
+
+    private Connection connection;
+
+    private PreparedStatement statement;
+
+    private Savepoint savepoint;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        stockRepository = new StockRepositoryImpl();
+        connection = mock(Connection.class);
+        statement = mock(PreparedStatement.class);
+        savepoint = mock(Savepoint.class);
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+        when(connection.setSavepoint()).thenReturn(savepoint);
+    }
+
+    @Test
+    void reportedCountsAreReturnedAndLaterBatchesSkipTheSavepoint() throws SQLException {
+        when(statement.executeBatch()).thenReturn(new int[]{1, 0, 1});
+
+        assertThat(stockRepository.executeDeltas(connection, USER_ACCOUNT_ID, PRODUCT_IDS, DELTAS)).containsExactly(1, 0, 1);
+        verify(connection).releaseSavepoint(savepoint);
+        verify(connection, never()).rollback(any(Savepoint.class));
+
+        assertThat(stockRepository.executeDeltas(connection, USER_ACCOUNT_ID, PRODUCT_IDS, DELTAS)).containsExactly(1, 0, 1);
+        verify(connection, times(1)).setSavepoint();
+        verify(statement, never()).executeUpdate();
+    }
+
+    @Test
+    void singleStatementBatchDoesNotSettleTheDriver() throws SQLException {
+        when(statement.executeBatch()).thenReturn(new int[]{1});
+
+        stockRepository.executeDeltas(connection, USER_ACCOUNT_ID, new long[]{10L}, new int[]{5});
+        stockRepository.executeDeltas(connection, USER_ACCOUNT_ID, new long[]{10L}, new int[]{5});
+
+        verify(connection, times(2)).setSavepoint();
+        verify(connection, times(2)).releaseSavepoint(savepoint);
+    }
+
+    @Test
+    void missingCountsUndoTheBatchAndApplyTheDeltasOneByOne() throws SQLException {
+        when(statement.executeBatch()).thenReturn(new int[]{Statement.SUCCESS_NO_INFO, Statement.SUCCESS_NO_INFO, Statement.SUCCESS_NO_INFO});
+        when(statement.executeUpdate()).thenReturn(1, 0, 1);
+
+        assertThat(stockRepository.executeDeltas(connection, USER_ACCOUNT_ID, PRODUCT_IDS, DELTAS)).containsExactly(1, 0, 1);
+        verify(connection).rollback(savepoint);
+        verify(connection, never()).releaseSavepoint(any(Savepoint.class));
+        verify(statement, times(2)).setLong(2, PRODUCT_IDS[1]);
+        verify(statement, times(2)).setInt(4, DELTAS[1]);
+    }
+
+    @Test
+    void driverWithoutCountsGetsTheDeltasOneByOneWithoutBatchOrSavepoint() throws SQLException {
+        when(statement.executeBatch()).thenReturn(new int[]{Statement.SUCCESS_NO_INFO, Statement.SUCCESS_NO_INFO, Statement.SUCCESS_NO_INFO});
+        when(statement.executeUpdate()).thenReturn(1);
+        stockRepository.executeDeltas(connection, USER_ACCOUNT_ID, PRODUCT_IDS, DELTAS);
+        clearInvocations(connection, statement);
+
+        assertThat(stockRepository.executeDeltas(connection, USER_ACCOUNT_ID, PRODUCT_IDS, DELTAS)).containsExactly(1, 1, 1);
+        verify(connection, never()).setSavepoint();
+        verify(statement, never()).executeBatch();
+        verify(statement, times(PRODUCT_IDS.length)).executeUpdate();
+    }
+
+}